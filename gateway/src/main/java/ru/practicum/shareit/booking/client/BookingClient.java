@@ -7,11 +7,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -33,22 +36,38 @@ public class BookingClient extends BaseClient {
     }
 
 
-    public ResponseEntity<Object> getAllByUser(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllByUser(Long userId, BookingState state, Integer from, Integer size, String cursor) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "cursor", cursor == null ? "" : cursor
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&cursor={cursor}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwner(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllByOwner(Long userId, BookingState state, Integer from, Integer size, String cursor) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "cursor", cursor == null ? "" : cursor
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAllByUser(Long userId, BookingState state) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name()
+        );
+        return stream("?state={state}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAllByOwner(Long userId, BookingState state) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name()
+        );
+        return stream("/owner?state={state}", userId, parameters);
     }
 
     public ResponseEntity<Object> getById(Long bookingId, Long userId) {
@@ -59,8 +78,16 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingShortDto);
     }
 
+    public ResponseEntity<Object> createBookings(List<BookingShortDto> bookingShortDtos, Long userId) {
+        return post("/batch", userId, bookingShortDtos);
+    }
+
     public ResponseEntity<Object> approveBooking(Long userId, Long bookingId, Boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
+    public ResponseEntity<Object> approveAll(Long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+
 }
@@ -2,16 +2,22 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -27,24 +33,44 @@ public class BookingController {
     public ResponseEntity<Object> getAllByUser(@RequestHeader(SHARER_USER_ID) Long userId,
                                                @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestParam(required = false) String cursor) {
         log.info("Работает: BookingController.getAllByUser");
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getAllByUser(userId, state, from, size);
+        return bookingClient.getAllByUser(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllByOwner(@RequestHeader(SHARER_USER_ID) Long userId,
                                                 @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String cursor) {
         log.info("Работает: BookingController.getAllByOwner");
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getAllByOwner(userId, state, from, size);
+        return bookingClient.getAllByOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByUser(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                                 @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
+        log.info("Работает: BookingController.streamAllByUser");
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        return bookingClient.streamAllByUser(userId, state);
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByOwner(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                                  @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
+        log.info("Работает: BookingController.streamAllByOwner");
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        return bookingClient.streamAllByOwner(userId, state);
     }
 
     @GetMapping(PATH_ID)
@@ -60,6 +86,14 @@ public class BookingController {
         return bookingClient.createBooking(bookingShortDto, userId);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                 @RequestBody @NotEmpty @Size(max = 100)
+                                                 List<@Valid BookingShortDto> bookingShortDtos) {
+        log.info("Работает: BookingController.createBookings, бронирований: {}", bookingShortDtos.size());
+        return bookingClient.createBookings(bookingShortDtos, userId);
+    }
+
     @PatchMapping(PATH_ID)
     public ResponseEntity<Object> approveBooking(@RequestHeader(SHARER_USER_ID) Long userId,
                                                  @PathVariable Long bookingId,
@@ -67,4 +101,12 @@ public class BookingController {
         log.info("Работает: BookingController.approve");
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveAll(@RequestHeader(SHARER_USER_ID) Long userId,
+                                             @RequestBody @NotEmpty @Size(max = 100)
+                                             List<@Valid BookingDecisionDto> decisions) {
+        log.info("Работает: BookingController.approveAll, решений: {}", decisions.size());
+        return bookingClient.approveAll(userId, decisions);
+    }
 }
@@ -1,15 +1,31 @@
 package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class BaseClient {
 
+    private static final String STREAM_INTERCEPTOR = BaseClient.class.getName() + ".stream";
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -76,6 +92,61 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * GET с ответом application/x-ndjson: тело ответа сервера копируется клиенту по мере чтения,
+     * без разбора в Object. Статус и Content-Type ответа сервера сохраняются. Ответ с ошибкой
+     * читается сразу, а соединение с сервером закрывается и тогда, когда тело клиенту так и не
+     * было записано: по таймауту или обрыву асинхронного запроса.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId, Map<String, Object> parameters) {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters);
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            response = request.execute();
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                responseBuilder.contentType(contentType);
+            }
+            if (!HttpStatus.Series.SUCCESSFUL.equals(HttpStatus.Series.resolve(response.getRawStatusCode()))) {
+                byte[] error = StreamUtils.copyToByteArray(response.getBody());
+                response.close();
+                return responseBuilder.body(outputStream -> outputStream.write(error));
+            }
+            ClientHttpResponse upstream = response;
+            closeOnAsyncCompletion(upstream);
+            return responseBuilder.body(outputStream -> {
+                try (upstream) {
+                    StreamUtils.copy(upstream.getBody(), outputStream);
+                }
+            });
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new ResourceAccessException("Ошибка запроса " + uri + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void closeOnAsyncCompletion(ClientHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) attributes).getRequest())
+                .registerCallableInterceptor(STREAM_INTERCEPTOR, new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        response.close();
+                    }
+                });
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
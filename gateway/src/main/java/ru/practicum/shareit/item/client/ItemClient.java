@@ -7,11 +7,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.comment.Dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
 
@@ -31,8 +35,16 @@ public class ItemClient extends BaseClient {
         super(template);
     }
 
-    public ResponseEntity<Object> getAllItems(Long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getAllItems(Long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from == null ? "" : from,
+                "size", size == null ? "" : size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAllItems(Long userId) {
+        return stream("", userId, Map.of());
     }
 
     public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
@@ -47,8 +59,45 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> searchItems(Long userId, String text) {
-        return get("/search?text=" + text, userId);
+    public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "cursor", cursor == null ? "" : cursor
+        );
+        return get("/search?text={text}&from={from}&size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamSearchItems(Long userId, String text) {
+        Map<String, Object> parameters = Map.of(
+                "text", text
+        );
+        return stream("/search?text={text}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggestItems(Long userId, String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from == null ? "" : from.toString(),
+                "to", to == null ? "" : to.toString()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(Long userId, Long itemId, Integer size, String cursor) {
+        Map<String, Object> parameters = Map.of(
+                "size", size,
+                "cursor", cursor == null ? "" : cursor
+        );
+        return get("/" + itemId + "/comments?size={size}&cursor={cursor}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentShortDto commentShortDto) {
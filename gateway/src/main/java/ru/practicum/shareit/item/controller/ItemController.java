@@ -2,26 +2,42 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.Dto.CommentShortDto;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
     private final ItemClient itemClient;
     private static final String SHARER_USER_ID = "X-Sharer-User-Id";
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader(SHARER_USER_ID) long userId) {
+    public ResponseEntity<Object> getAllItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                              @PositiveOrZero @RequestParam(required = false) Integer from,
+                                              @Positive @RequestParam(required = false) Integer size) {
         log.info("Работает: ItemController.getAllItems");
-        return itemClient.getAllItems(userId);
+        return itemClient.getAllItems(userId, from, size);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems(@RequestHeader(SHARER_USER_ID) long userId) {
+        log.info("Работает: ItemController.streamAllItems");
+        return itemClient.streamAllItems(userId);
     }
 
     @GetMapping("/{itemId}")
@@ -30,6 +46,19 @@ public class ItemController {
         return itemClient.getItemById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(SHARER_USER_ID) long userId, @PathVariable long itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Работает: ItemController.getAvailability");
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new IllegalArgumentException("Окончание периода должно быть позже начала");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @PostMapping
     public ResponseEntity<Object> createItem(@RequestHeader(SHARER_USER_ID) long userId, @Valid @RequestBody ItemDto itemDto) {
         log.info("Работает: ItemController.createItem");
@@ -44,9 +73,35 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestHeader(SHARER_USER_ID) long userId, @RequestParam("text") String text) {
+    public ResponseEntity<Object> searchItems(@RequestHeader(SHARER_USER_ID) long userId, @RequestParam("text") String text,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) String cursor) {
         log.info("Работает: ItemController.searchItems");
-        return itemClient.searchItems(userId, text);
+        return itemClient.searchItems(userId, text, from, size, cursor);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                                                   @RequestParam("text") String text) {
+        log.info("Работает: ItemController.streamSearchItems");
+        return itemClient.streamSearchItems(userId, text);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                               @RequestParam("prefix") String prefix,
+                                               @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Работает: ItemController.suggestItems");
+        return itemClient.suggestItems(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(SHARER_USER_ID) long userId, @PathVariable long itemId,
+                                              @Positive @RequestParam(defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) String cursor) {
+        log.info("Работает: ItemController.getComments");
+        return itemClient.getComments(userId, itemId, size, cursor);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -41,12 +41,13 @@ public class RequestClient extends BaseClient {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getAllItemRequest(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllItemRequest(Long userId, Integer from, Integer size, String cursor) {
         Map<String, Object> parameters = Map.of(
                 "from", from == null ? "" : from,
-                "size", size == null ? "" : size
+                "size", size == null ? "" : size,
+                "cursor", cursor == null ? "" : cursor
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return get("/all?from={from}&size={size}&cursor={cursor}", userId, parameters);
     }
 
     public ResponseEntity<Object> getAllByRequester(Long userId, Integer from, Integer size) {
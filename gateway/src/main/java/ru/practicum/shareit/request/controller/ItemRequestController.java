@@ -40,9 +40,10 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object>  getAllItemRequest(@RequestHeader(SHARER_USER_ID) Long userId,
                                                           @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                          @Positive @RequestParam(defaultValue = "10") Integer size) {
+                                                          @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
         log.info("Работает: ItemRequestController.getAllItemRequest");
-        return requestClient.getAllItemRequest(userId, from, size);
+        return requestClient.getAllItemRequest(userId, from, size, cursor);
     }
 
     @GetMapping
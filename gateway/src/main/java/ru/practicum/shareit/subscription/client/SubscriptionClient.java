@@ -0,0 +1,54 @@
+package ru.practicum.shareit.subscription.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+
+import java.util.Map;
+
+@Service
+public class SubscriptionClient extends BaseClient {
+
+    private static final String API_PREFIX = "/subscriptions";
+
+    @Autowired
+    public SubscriptionClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .build()
+        );
+    }
+
+    public SubscriptionClient(RestTemplate template) {
+        super(template);
+    }
+
+    public ResponseEntity<Object> createSubscription(Long userId, SubscriptionDto subscriptionDto) {
+        return post("", userId, subscriptionDto);
+    }
+
+    public ResponseEntity<Object> getSubscriptions(Long userId) {
+        return get("", userId);
+    }
+
+    public ResponseEntity<Object> deleteSubscription(Long userId, Long subscriptionId) {
+        return delete("/" + subscriptionId, userId);
+    }
+
+    public ResponseEntity<Object> getInbox(Long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from == null ? "" : from,
+                "size", size == null ? "" : size
+        );
+        return get("/inbox?from={from}&size={size}", userId, parameters);
+    }
+}
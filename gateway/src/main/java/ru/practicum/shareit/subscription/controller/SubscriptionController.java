@@ -0,0 +1,51 @@
+package ru.practicum.shareit.subscription.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.subscription.client.SubscriptionClient;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/subscriptions")
+@RequiredArgsConstructor
+@Validated
+public class SubscriptionController {
+    private final SubscriptionClient subscriptionClient;
+    private static final String SHARER_USER_ID = "X-Sharer-User-Id";
+
+    @PostMapping
+    public ResponseEntity<Object> createSubscription(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                     @Valid @RequestBody SubscriptionDto subscriptionDto) {
+        log.info("Работает: SubscriptionController.createSubscription");
+        return subscriptionClient.createSubscription(userId, subscriptionDto);
+    }
+
+    @GetMapping
+    public ResponseEntity<Object> getSubscriptions(@RequestHeader(SHARER_USER_ID) Long userId) {
+        log.info("Работает: SubscriptionController.getSubscriptions");
+        return subscriptionClient.getSubscriptions(userId);
+    }
+
+    @DeleteMapping("/{subscriptionId}")
+    public ResponseEntity<Object> deleteSubscription(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                     @PathVariable Long subscriptionId) {
+        log.info("Работает: SubscriptionController.deleteSubscription");
+        return subscriptionClient.deleteSubscription(userId, subscriptionId);
+    }
+
+    @GetMapping("/inbox")
+    public ResponseEntity<Object> getInbox(@RequestHeader(SHARER_USER_ID) Long userId,
+                                           @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                           @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Работает: SubscriptionController.getInbox");
+        return subscriptionClient.getInbox(userId, from, size);
+    }
+}
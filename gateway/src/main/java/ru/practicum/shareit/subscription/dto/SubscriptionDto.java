@@ -0,0 +1,18 @@
+package ru.practicum.shareit.subscription.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+
+public class SubscriptionDto implements Serializable {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @NotBlank
+    @Size(max = 50)
+    @JsonProperty("keyword")
+    private String keyword;
+}
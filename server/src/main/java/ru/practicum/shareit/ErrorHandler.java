@@ -1,6 +1,8 @@
 package ru.practicum.shareit;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,6 +12,7 @@ import ru.practicum.shareit.booking.exception.BadRequestException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
 
+import javax.validation.ConstraintViolationException;
 import java.util.Map;
 
 @Slf4j
@@ -37,6 +40,20 @@ public class ErrorHandler {
         return Map.of("error", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> dataIntegrityViolationException(final DataIntegrityViolationException e) {
+        log.error(String.valueOf(e));
+        return Map.of("error", "Нарушено ограничение целостности данных");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> optimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.error(String.valueOf(e));
+        return Map.of("error", "Данные были изменены другим запросом, повторите попытку");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> methodArgumentNotValidException(final MethodArgumentNotValidException e) {
@@ -44,4 +61,11 @@ public class ErrorHandler {
         return Map.of("error", e.getFieldError().getField() + " " + e.getFieldError().getDefaultMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> constraintViolationException(final ConstraintViolationException e) {
+        log.error(String.valueOf(e));
+        return Map.of("error", e.getMessage());
+    }
+
 }
@@ -0,0 +1,91 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Непрозрачный курсор списка в порядке (время desc, id desc): время и id последней отданной строки.
+ * Следующая страница начинается строго после нее. Курсор хранит область - описание выборки,
+ * для которой он выдан, и в другой выборке не принимается.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    public static final KeysetCursor FIRST = new KeysetCursor(null, null);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime afterTime;
+    private final Long afterId;
+
+    public boolean isFirst() {
+        return afterTime == null;
+    }
+
+    public static KeysetCursor decode(String cursor, String scope) {
+        if (StringUtils.isBlank(cursor)) {
+            return FIRST;
+        }
+        String[] values = decodeValues(cursor, scope, 2);
+        try {
+            return new KeysetCursor(LocalDateTime.parse(values[1]), Long.parseLong(values[0]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    /**
+     * Курсор следующей страницы, если она есть.
+     */
+    public static <T> Optional<String> next(Slice<T> page, String scope, Function<T, Long> id,
+                                            Function<T, LocalDateTime> time) {
+        List<T> content = page.getContent();
+        if (!page.hasNext() || content.isEmpty()) {
+            return Optional.empty();
+        }
+        T last = content.get(content.size() - 1);
+        return Optional.of(encode(scope, String.valueOf(id.apply(last)), String.valueOf(time.apply(last))));
+    }
+
+    /**
+     * Кодирует значения курсора и его область. Значения не должны содержать разделитель,
+     * область - любая строка, она записывается последней.
+     */
+    public static String encode(String scope, String... values) {
+        String value = String.join(SEPARATOR, values) + SEPARATOR + scope;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Значения курсора, закодированного encode с той же областью и count значениями.
+     */
+    public static String[] decodeValues(String cursor, String scope, int count) {
+        String[] values;
+        try {
+            values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(Pattern.quote(SEPARATOR), count + 1);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор: " + cursor);
+        }
+        if (values.length != count + 1) {
+            throw new BadRequestException("Некорректный курсор: " + cursor);
+        }
+        if (!values[count].equals(scope)) {
+            throw new BadRequestException("Курсор получен для другого списка: " + cursor);
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Тело ответа application/x-ndjson: каждый объект пишется отдельной строкой сразу по мере получения.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class NdjsonBody {
+    private static final int FLUSH_EVERY = 100;
+
+    public static StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<Object>> producer) {
+        return outputStream -> {
+            int[] written = {0};
+            try {
+                producer.accept(value -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(value));
+                        outputStream.write('\n');
+                        if (++written[0] % FLUSH_EVERY == 0) {
+                            outputStream.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+        };
+    }
+}
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.NdjsonBody;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingCursor;
+import ru.practicum.shareit.booking.repository.BookingRole;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -18,25 +31,51 @@ import java.util.List;
 @Validated
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String SHARER_USER_ID = "X-Sharer-User-Id";
     private static final String PATH_ID = "/{bookingId}";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     @GetMapping
-    public List<BookingDto> getAllByUser(@RequestHeader(SHARER_USER_ID) Long userId,
-                                         @RequestParam(defaultValue = "ALL") BookingState state,
-                                         @RequestParam(defaultValue = "0") Integer from,
-                                         @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingView>> getAllByUser(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                         @RequestParam(defaultValue = "ALL") BookingState state,
+                                                         @RequestParam(defaultValue = "0") Integer from,
+                                                         @RequestParam(defaultValue = "10") Integer size,
+                                                         @RequestParam(required = false) String cursor) {
         log.info("Работает: BookingController.getAllByUser");
-        return bookingService.getAllByUser(userId, state, from, size);
+        Slice<BookingView> bookings = StringUtils.isBlank(cursor)
+                ? bookingService.getAllByUser(userId, state, from, size)
+                : bookingService.getAllByUserAfter(userId, state, cursor, size);
+        return withNextCursor(bookings, BookingCursor.next(bookings, BookingRole.BOOKER, userId, state));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader(SHARER_USER_ID) Long userId,
-                                          @RequestParam(defaultValue = "ALL") BookingState state,
-                                          @RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingView>> getAllByOwner(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                          @RequestParam(defaultValue = "ALL") BookingState state,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
         log.info("Работает: BookingController.getAllByOwner");
-        return bookingService.getAllByOwner(userId, state, from, size);
+        Slice<BookingView> bookings = StringUtils.isBlank(cursor)
+                ? bookingService.getAllByOwner(userId, state, from, size)
+                : bookingService.getAllByOwnerAfter(userId, state, cursor, size);
+        return withNextCursor(bookings, BookingCursor.next(bookings, BookingRole.OWNER, userId, state));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllByUser(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                 @RequestParam(defaultValue = "ALL") BookingState state) {
+        log.info("Работает: BookingController.streamAllByUser");
+        bookingService.checkUser(userId);
+        return NdjsonBody.of(objectMapper, consumer -> bookingService.streamAllByUser(userId, state, consumer));
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllByOwner(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                  @RequestParam(defaultValue = "ALL") BookingState state) {
+        log.info("Работает: BookingController.streamAllByOwner");
+        bookingService.checkUser(userId);
+        return NdjsonBody.of(objectMapper, consumer -> bookingService.streamAllByOwner(userId, state, consumer));
     }
 
     @GetMapping(PATH_ID)
@@ -52,6 +91,13 @@ public class BookingController {
         return bookingService.createBooking(bookingShortDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBookings(@RequestHeader(SHARER_USER_ID) Long userId,
+                                           @RequestBody List<BookingShortDto> bookingShortDtos) {
+        log.info("Работает: BookingController.createBookings");
+        return bookingService.createBookings(bookingShortDtos, userId);
+    }
+
     @PatchMapping(PATH_ID)
     public BookingDto approve(
             @RequestHeader(SHARER_USER_ID) Long userId,
@@ -61,5 +107,17 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> approveAll(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                     @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Работает: BookingController.approveAll");
+        return bookingService.approveBookings(userId, decisions);
+    }
 
+    private static ResponseEntity<List<BookingView>> withNextCursor(Slice<BookingView> bookings,
+                                                                    Optional<String> nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        nextCursor.ifPresent(next -> response.header(NEXT_CURSOR, next));
+        return response.body(bookings.getContent());
+    }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Результат решения владельца по одному бронированию: новый статус или текст ошибки.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@EqualsAndHashCode
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+
+    private BookingStatus status;
+
+    private String error;
+}
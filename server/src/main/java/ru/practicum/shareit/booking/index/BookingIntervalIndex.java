@@ -0,0 +1,230 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.model.BookingStatus.EXPIRED;
+import static ru.practicum.shareit.booking.model.BookingStatus.WAITING;
+
+/**
+ * Занятые интервалы [start, end) каждой вещи: бронирования в статусах WAITING и APPROVED.
+ * Интервалы одной вещи не пересекаются, поэтому пересечения нового интервала ищутся от соседа
+ * по start - O(log n). В PostgreSQL тот же инвариант держит ограничение bookings_no_overlap,
+ * оно защищает от гонки между несколькими узлами сервера.
+ * WAITING-бронирование с наступившим start интервал не занимает: владелец его уже не подтвердит.
+ * Такие бронирования, мешающие новому, переводятся в EXPIRED в его транзакции, поэтому
+ * интервалы освобождаются и без BookingLifecycleScheduler.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final Comparator<BookingSlot> BY_START = Comparator.comparing(BookingSlot::getStart)
+            .thenComparing(BookingSlot::getId);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableSet<BookingSlot>> intervals = new ConcurrentHashMap<>();
+    private final Set<Long> waiting = ConcurrentHashMap.newKeySet();
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        log.info("Работает метод: warmUp, загрузка занятых интервалов вещей");
+        List<BookingSlot> waitingSlots = bookingRepository.findSlotsByStatus(WAITING);
+        List<BookingSlot> approvedSlots = bookingRepository.findSlotsByStatus(APPROVED);
+        intervals.clear();
+        waiting.clear();
+        waitingSlots.forEach(slot -> waiting.add(slot.getId()));
+        waitingSlots.forEach(slot -> intervals(slot.getItemId()).add(slot));
+        approvedSlots.forEach(slot -> intervals(slot.getItemId()).add(slot));
+        log.info("Занятые интервалы загружены, бронирований: {}", waitingSlots.size() + approvedSlots.size());
+    }
+
+    /**
+     * Проверяет, что интервал WAITING-бронирования свободен, сохраняет его через save и занимает интервал.
+     * Пересекающиеся WAITING-бронирования с наступившим start переводятся в EXPIRED в текущей транзакции.
+     * Вызывается под блокировкой вещи ItemWriteLocks, которая упорядочивает запись; монитор интервалов
+     * берется только на проверку и изменение индекса, чтобы запросы к базе не задерживали isFree и busy.
+     * При пересечении бросается BadRequestException. При откате текущей транзакции интервал
+     * освобождается, а истекшие интервалы возвращаются.
+     */
+    public void reserve(Booking booking, Runnable save) {
+        Long itemId = booking.getItem().getId();
+        NavigableSet<BookingSlot> itemIntervals = intervals(itemId);
+        List<BookingSlot> expired;
+        synchronized (itemIntervals) {
+            LocalDateTime now = LocalDateTime.now();
+            expired = findOverlaps(itemIntervals, booking.getStart(), booking.getEnd());
+            expired.stream()
+                    .filter(overlap -> !isStale(overlap, now))
+                    .findFirst()
+                    .ifPresent(overlap -> {
+                        throw new BadRequestException("Вещь id = " + itemId
+                                + " уже забронирована с " + overlap.getStart() + " по " + overlap.getEnd());
+                    });
+            expired.forEach(this::remove);
+        }
+        try {
+            expire(itemId, expired);
+            save.run();
+        } catch (RuntimeException e) {
+            expired.forEach(this::restore);
+            throw e;
+        }
+        BookingSlot slot = toSlot(booking);
+        synchronized (itemIntervals) {
+            itemIntervals.add(slot);
+            waiting.add(slot.getId());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(slot);
+                        expired.forEach(BookingIntervalIndex.this::restore);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Освобождает интервал, если бронирование больше не WAITING и не APPROVED. Подтвержденное
+     * бронирование перестает считаться ожидающим только после коммита: при откате оно остается WAITING.
+     */
+    public void update(Booking booking) {
+        if (booking.getStatus() == APPROVED) {
+            afterCommit(() -> waiting.remove(booking.getId()));
+        } else if (booking.getStatus() != WAITING) {
+            release(List.of(toSlot(booking)));
+        }
+    }
+
+    /**
+     * Освобождает интервалы бронирований, переведенных из WAITING и APPROVED в другой статус,
+     * после коммита текущей транзакции. Вызывается под блокировками вещей ItemWriteLocks, поэтому
+     * новое бронирование не займет интервал, пока смена статуса не зафиксирована.
+     */
+    public void release(Collection<BookingSlot> slots) {
+        afterCommit(() -> slots.forEach(this::remove));
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableSet<BookingSlot> itemIntervals = intervals.get(itemId);
+        if (itemIntervals == null) {
+            return true;
+        }
+        synchronized (itemIntervals) {
+            LocalDateTime now = LocalDateTime.now();
+            return findOverlaps(itemIntervals, start, end).stream().allMatch(slot -> isStale(slot, now));
+        }
+    }
+
+    /**
+     * Занятые интервалы вещи, пересекающие [from, to), в порядке start: один поиск соседа и обход подмножества.
+     */
+    public List<BookingSlot> busy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<BookingSlot> itemIntervals = intervals.get(itemId);
+        if (itemIntervals == null) {
+            return List.of();
+        }
+        synchronized (itemIntervals) {
+            LocalDateTime now = LocalDateTime.now();
+            return findOverlaps(itemIntervals, from, to).stream()
+                    .filter(slot -> !isStale(slot, now))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<BookingSlot> findOverlaps(NavigableSet<BookingSlot> itemIntervals,
+                                                  LocalDateTime start, LocalDateTime end) {
+        BookingSlot probe = new BookingSlot(Long.MAX_VALUE, null, null, start, start);
+        BookingSlot before = itemIntervals.lower(probe);
+        BookingSlot first = before != null && before.getEnd().isAfter(start) ? before : itemIntervals.higher(probe);
+        if (first == null) {
+            return List.of();
+        }
+        List<BookingSlot> overlaps = new ArrayList<>();
+        for (BookingSlot slot : itemIntervals.tailSet(first, true)) {
+            if (!slot.getStart().isBefore(end)) {
+                break;
+            }
+            overlaps.add(slot);
+        }
+        return overlaps;
+    }
+
+    private boolean isStale(BookingSlot slot, LocalDateTime now) {
+        return waiting.contains(slot.getId()) && slot.getStart().isBefore(now);
+    }
+
+    /**
+     * Переводит истекшие WAITING-бронирования в EXPIRED; их интервалы уже убраны из индекса.
+     */
+    private void expire(Long itemId, List<BookingSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        List<Long> ids = slots.stream().map(BookingSlot::getId).collect(Collectors.toList());
+        if (bookingRepository.updateStatus(ids, WAITING, EXPIRED) != ids.size()) {
+            throw new BadRequestException("Вещь id = " + itemId + " уже забронирована");
+        }
+        log.info("Истекшие бронирования {} вещи id = {} переведены в EXPIRED", ids, itemId);
+    }
+
+    private void remove(BookingSlot slot) {
+        NavigableSet<BookingSlot> itemIntervals = intervals.get(slot.getItemId());
+        if (itemIntervals != null) {
+            synchronized (itemIntervals) {
+                itemIntervals.remove(slot);
+                waiting.remove(slot.getId());
+            }
+        }
+    }
+
+    private void restore(BookingSlot slot) {
+        NavigableSet<BookingSlot> itemIntervals = intervals(slot.getItemId());
+        synchronized (itemIntervals) {
+            itemIntervals.add(slot);
+            waiting.add(slot.getId());
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private NavigableSet<BookingSlot> intervals(Long itemId) {
+        return intervals.computeIfAbsent(itemId, id -> new TreeSet<>(BY_START));
+    }
+
+    private static BookingSlot toSlot(Booking booking) {
+        return new BookingSlot(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd());
+    }
+}
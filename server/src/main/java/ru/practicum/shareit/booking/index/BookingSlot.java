@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегченное представление бронирования для индексов в памяти.
+ */
+@Value
+public class BookingSlot {
+    Long id;
+    Long itemId;
+    Long bookerId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
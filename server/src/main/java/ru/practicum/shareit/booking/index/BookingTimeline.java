@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
+
+/**
+ * Упорядоченная по start лента подтвержденных бронирований каждой вещи.
+ * Последнее и следующее бронирование находятся за O(log n) без обращения к базе.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingTimeline {
+    private static final Comparator<BookingSlot> BY_START = Comparator.comparing(BookingSlot::getStart)
+            .thenComparing(BookingSlot::getId);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableSet<BookingSlot>> timelines = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        log.info("Работает метод: warmUp, загрузка подтвержденных бронирований");
+        List<BookingSlot> slots = bookingRepository.findSlotsByStatus(APPROVED);
+        timelines.clear();
+        slots.forEach(this::add);
+        log.info("Лента бронирований загружена, бронирований: {}", slots.size());
+    }
+
+    /**
+     * Переносит новый статус бронирования в ленту после коммита текущей транзакции:
+     * откат, в том числе повтор в ItemWriteLocks, ленту не меняет.
+     */
+    public void update(Booking booking) {
+        BookingSlot slot = new BookingSlot(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd());
+        boolean approved = booking.getStatus() == APPROVED;
+        Runnable apply = () -> {
+            if (approved) {
+                add(slot);
+            } else {
+                Optional.ofNullable(timelines.get(slot.getItemId())).ifPresent(timeline -> timeline.remove(slot));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public Optional<BookingSlot> last(Long itemId, LocalDateTime now) {
+        return Optional.ofNullable(timelines.get(itemId))
+                .map(timeline -> timeline.lower(new BookingSlot(Long.MIN_VALUE, itemId, null, now, now)));
+    }
+
+    public Optional<BookingSlot> next(Long itemId, LocalDateTime now) {
+        return Optional.ofNullable(timelines.get(itemId))
+                .map(timeline -> timeline.higher(new BookingSlot(Long.MAX_VALUE, itemId, null, now, now)));
+    }
+
+    private void add(BookingSlot slot) {
+        timelines.computeIfAbsent(slot.getItemId(), itemId -> new ConcurrentSkipListSet<>(BY_START)).add(slot);
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingSlot;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comment.service.CommentEligibilityCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.model.BookingStatus.EXPIRED;
+import static ru.practicum.shareit.booking.model.BookingStatus.WAITING;
+
+/**
+ * Фоновые переходы жизненного цикла бронирований: WAITING с наступившим start становится EXPIRED,
+ * бронирования с прошедшим end помечаются finished. Кандидаты выбираются по индексам
+ * (status, start_date) и (finished, end_date) порциями по batchSize, каждая порция - отдельная
+ * короткая транзакция. За один запуск обрабатывается не более maxBatches порций на переход,
+ * поэтому нагрузка ограничена batchSize * maxBatches строк за fixedDelay.
+ * Отставание (lag) - возраст самого старого необработанного кандидата на момент выборки порции.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lifecycle.enabled", havingValue = "true")
+public class BookingLifecycleScheduler {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final ItemWriteLocks itemWriteLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final DistributionSummary expiredBatches;
+    private final DistributionSummary finishedBatches;
+    private final AtomicLong expireLagSeconds = new AtomicLong();
+    private final AtomicLong finishLagSeconds = new AtomicLong();
+
+    @Autowired
+    public BookingLifecycleScheduler(BookingRepository bookingRepository,
+                                     BookingIntervalIndex bookingIntervalIndex,
+                                     CommentEligibilityCache commentEligibilityCache,
+                                     ItemWriteLocks itemWriteLocks,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${shareit.booking.lifecycle.batch-size:500}") int batchSize,
+                                     @Value("${shareit.booking.lifecycle.max-batches:10}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.commentEligibilityCache = commentEligibilityCache;
+        this.itemWriteLocks = itemWriteLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.expiredBatches = DistributionSummary.builder("shareit.booking.lifecycle.batch.size")
+                .tag("transition", "expire")
+                .register(meterRegistry);
+        this.finishedBatches = DistributionSummary.builder("shareit.booking.lifecycle.batch.size")
+                .tag("transition", "finish")
+                .register(meterRegistry);
+        meterRegistry.gauge("shareit.booking.lifecycle.lag.seconds", Tags.of("transition", "expire"), expireLagSeconds);
+        meterRegistry.gauge("shareit.booking.lifecycle.lag.seconds", Tags.of("transition", "finish"), finishLagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.fixed-delay:30000}",
+            initialDelayString = "${shareit.booking.lifecycle.initial-delay:30000}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        int finished = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int count = expireBatch(now);
+            expired += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int count = finishBatch(now);
+            finished += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (expired > 0 || finished > 0) {
+            log.info("Жизненный цикл бронирований: истекло {}, завершено {}", expired, finished);
+        }
+    }
+
+    /**
+     * Переводит в EXPIRED порцию WAITING-бронирований, начало которых уже наступило, и освобождает их интервалы.
+     * Смена статуса выполняется под блокировками вещей порции, интервалы освобождаются после ее коммита.
+     */
+    int expireBatch(LocalDateTime now) {
+        List<BookingSlot> candidates = bookingRepository.findSlotsByStatusAndStartBefore(WAITING, now,
+                PageRequest.of(0, batchSize));
+        expireLagSeconds.set(candidates.isEmpty() ? 0
+                : Duration.between(candidates.get(0).getStart(), now).getSeconds());
+        int expired = candidates.isEmpty() ? 0 : itemWriteLocks.inTransaction(
+                candidates.stream().map(BookingSlot::getItemId).collect(Collectors.toSet()), () -> expire(candidates));
+        expiredBatches.record(expired);
+        return expired;
+    }
+
+    private int expire(List<BookingSlot> candidates) {
+        List<Long> ids = candidates.stream().map(BookingSlot::getId).collect(Collectors.toList());
+        int updated = bookingRepository.updateStatus(ids, WAITING, EXPIRED);
+        List<BookingSlot> slots = candidates;
+        if (updated < ids.size()) {
+            Set<Long> expiredIds = new HashSet<>(bookingRepository.findIdsByIdInAndStatus(ids, EXPIRED));
+            slots = candidates.stream().filter(slot -> expiredIds.contains(slot.getId())).collect(Collectors.toList());
+        }
+        bookingIntervalIndex.release(slots);
+        return slots.size();
+    }
+
+    /**
+     * Помечает finished порцию бронирований, окончание которых уже прошло, и запоминает
+     * авторов подтвержденных из них в кэше права на комментарий.
+     */
+    int finishBatch(LocalDateTime now) {
+        Integer finished = transactionTemplate.execute(status -> {
+            List<BookingSlot> slots = bookingRepository.findUnfinishedSlotsByEndBefore(now, PageRequest.of(0, batchSize));
+            finishLagSeconds.set(slots.isEmpty() ? 0 : Duration.between(slots.get(0).getEnd(), now).getSeconds());
+            if (slots.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = slots.stream().map(BookingSlot::getId).collect(Collectors.toList());
+            int updated = bookingRepository.markFinished(ids);
+            Set<Long> approvedIds = new HashSet<>(bookingRepository.findIdsByIdInAndStatus(ids, APPROVED));
+            slots.stream()
+                    .filter(slot -> approvedIds.contains(slot.getId()))
+                    .forEach(slot -> commentEligibilityCache.add(slot.getBookerId(), slot.getItemId()));
+            return updated;
+        });
+        finishedBatches.record(finished);
+        return finished;
+    }
+}
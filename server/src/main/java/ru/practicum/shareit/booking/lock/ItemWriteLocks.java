@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Полосатые блокировки записи по вещам. Записи одной вещи выполняются по очереди,
+ * записи разных вещей - параллельно, если вещи попали в разные полосы.
+ * Транзакция открывается и фиксируется под блокировкой; конфликт версий,
+ * пришедший от другого узла сервера, повторяется не более maxAttempts раз.
+ */
+@Slf4j
+@Component
+public class ItemWriteLocks {
+    private final Lock[] stripes;
+    private final int maxAttempts;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ItemWriteLocks(@Value("${shareit.booking.lock.stripes:64}") int stripes,
+                          @Value("${shareit.booking.lock.max-attempts:3}") int maxAttempts,
+                          TransactionTemplate transactionTemplate) {
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.maxAttempts = maxAttempts;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public <T> T inTransaction(Long itemId, Supplier<T> action) {
+        return inTransaction(Collections.singletonList(itemId), action);
+    }
+
+    /**
+     * Захватывает полосы всех вещей в порядке возрастания номера полосы, чтобы
+     * пакетные записи не взаимоблокировались с одиночными и между собой.
+     */
+    public <T> T inTransaction(Collection<Long> itemIds, Supplier<T> action) {
+        List<Lock> locks = itemIds.stream()
+                .map(itemId -> Math.floorMod(Objects.hashCode(itemId), stripes.length))
+                .distinct()
+                .sorted()
+                .map(stripe -> stripes[stripe])
+                .collect(Collectors.toList());
+        locks.forEach(Lock::lock);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> action.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    log.warn("Конфликт версий при записи вещей id = {}, попытка {} из {}", itemIds, attempt, maxAttempts);
+                }
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+}
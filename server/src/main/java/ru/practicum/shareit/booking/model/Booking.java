@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -42,4 +43,12 @@ public class Booking {
     @Column(name = "status", length = 1000, nullable = false)
     private BookingStatus status;
 
+    @Column(name = "finished", nullable = false)
+    private boolean finished;
+
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private long version;
+
 }
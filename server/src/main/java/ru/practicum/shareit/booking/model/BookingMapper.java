@@ -4,6 +4,7 @@ import lombok.NonNull;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.index.BookingSlot;
 
 public class BookingMapper {
     public static BookingDto toBookingDto(@NonNull Booking booking) {
@@ -26,6 +27,13 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDtoResponse toBookingDtoResponse(@NonNull BookingSlot bookingSlot) {
+        return BookingDtoResponse
+                .builder()
+                .id(bookingSlot.getId())
+                .bookerId(bookingSlot.getBookerId())
+                .build();
+    }
 
     public static Booking toBooking(@NonNull BookingDto bookingDto) {
         return Booking
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегченное представление бронирования для списков: только поля, которые показывает API.
+ * Строится конструктором прямо в запросе, без загрузки сущностей Item и User.
+ */
+@Value
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    ItemRef item;
+    BookerRef booker;
+    BookingStatus status;
+
+    public BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                       Long itemId, String itemName, Long bookerId) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = new ItemRef(itemId, itemName);
+        this.booker = new BookerRef(bookerId);
+        this.status = status;
+    }
+
+    @Value
+    public static class ItemRef {
+        Long id;
+        String name;
+    }
+
+    @Value
+    public static class BookerRef {
+        Long id;
+    }
+}
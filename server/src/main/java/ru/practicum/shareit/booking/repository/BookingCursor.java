@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.util.Optional;
+
+/**
+ * Курсор списка бронирований в порядке (start desc, id desc), привязанный к роли, пользователю и состоянию.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingCursor {
+
+    public static KeysetCursor decode(String cursor, BookingRole role, long userId, BookingState state) {
+        return KeysetCursor.decode(cursor, scope(role, userId, state));
+    }
+
+    public static Optional<String> next(Slice<BookingView> page, BookingRole role, long userId, BookingState state) {
+        return KeysetCursor.next(page, scope(role, userId, state), BookingView::getId, BookingView::getStart);
+    }
+
+    private static String scope(BookingRole role, long userId, BookingState state) {
+        return "bookings:" + role + ":" + userId + ":" + state;
+    }
+}
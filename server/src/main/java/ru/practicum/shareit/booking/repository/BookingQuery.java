@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Value;
+import lombok.With;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований пользователя: роль (арендатор или владелец вещей),
+ * состояние, момент времени, относительно которого считаются CURRENT, PAST и FUTURE,
+ * и курсор, после которого начинается выборка.
+ */
+@Value
+public class BookingQuery {
+    long userId;
+    BookingRole role;
+    BookingState state;
+    LocalDateTime now;
+    @With
+    KeysetCursor after;
+
+    public static BookingQuery ofBooker(long userId, BookingState state) {
+        return new BookingQuery(userId, BookingRole.BOOKER, state, LocalDateTime.now(), KeysetCursor.FIRST);
+    }
+
+    public static BookingQuery ofOwner(long userId, BookingState state) {
+        return new BookingQuery(userId, BookingRole.OWNER, state, LocalDateTime.now(), KeysetCursor.FIRST);
+    }
+}
@@ -1,39 +1,59 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.index.BookingSlot;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
-    Page<Booking> findAllByItemOwner(User user, Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.status = :status")
+    List<BookingSlot> findSlotsByStatus(@Param("status") BookingStatus status);
 
-    Page<Booking> findAllByItemOwnerAndStartBeforeAndEndAfter(User user, LocalDateTime now,
-                                                              LocalDateTime now1, Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.status in :statuses")
+    List<BookingSlot> findSlotsByStatusIn(@Param("statuses") Collection<BookingStatus> statuses);
 
-    Page<Booking> findAllByItemOwnerAndEndBefore(User user, LocalDateTime now, Pageable pageable);
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
 
-    Page<Booking> findAllByItemOwnerAndStartAfter(User user, LocalDateTime now, Pageable pageable);
+    @Query("select b.item.id from Booking b where b.id = :id")
+    Optional<Long> findItemIdById(@Param("id") Long id);
 
-    Page<Booking> findAllByItemOwnerAndStatusEquals(User user, BookingStatus waiting, Pageable pageable);
+    @Query("select distinct b.item.id from Booking b where b.id in :ids")
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
 
-    Page<Booking> findAllByBooker(User user, Pageable pageable);
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
 
-    Page<Booking> findAllByBookerAndStartBeforeAndEndAfter(User user, LocalDateTime now, LocalDateTime now1,
-                                                           Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.status = :status and b.start < :now order by b.start, b.id")
+    List<BookingSlot> findSlotsByStatusAndStartBefore(@Param("status") BookingStatus status,
+                                                      @Param("now") LocalDateTime now, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndEndBefore(User user, LocalDateTime now, Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.finished = false and b.end < :now order by b.end, b.id")
+    List<BookingSlot> findUnfinishedSlotsByEndBefore(@Param("now") LocalDateTime now, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndStartAfter(User user, LocalDateTime now, Pageable pageable);
+    @Query("select b.id from Booking b where b.id in :ids and b.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
 
-    Page<Booking> findAllByBookerAndStatusEquals(User user, BookingStatus waiting, Pageable pageable);
+    @Modifying
+    @Query("update Booking b set b.status = :to, b.version = b.version + 1 where b.id in :ids and b.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") BookingStatus from,
+                     @Param("to") BookingStatus to);
 
-    List<Booking> findByItem(Item item);
+    @Modifying
+    @Query("update Booking b set b.finished = true, b.version = b.version + 1 where b.id in :ids and b.finished = false")
+    int markFinished(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Не более size бронирований по условиям query, от новых к старым, начиная с offset-й строки
+     * после курсора query. Запрос один, без подсчета общего числа строк.
+     */
+    Slice<BookingView> findSlice(BookingQuery query, long offset, int size);
+
+    /**
+     * Бронирования по условиям query, от новых к старым, читаемые курсором с ограниченным fetch size.
+     */
+    Stream<BookingView> stream(BookingQuery query);
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Единый построитель запросов бронирований: роль x состояние (окно времени или статус).
+ * Курсор задает seek по индексам (..., start_date DESC, id DESC) вместо OFFSET.
+ * Выбираются только поля BookingView: одна строка bookings join items на бронирование.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final int FETCH_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookingView> findSlice(BookingQuery query, long offset, int size) {
+        List<BookingView> bookings = createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = bookings.size() > size;
+        return new SliceImpl<>(hasNext ? bookings.subList(0, size) : bookings, Pageable.unpaged(), hasNext);
+    }
+
+    @Override
+    public Stream<BookingView> stream(BookingQuery query) {
+        return createQuery(query)
+                .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<BookingView> createQuery(BookingQuery query) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> criteria = builder.createQuery(BookingView.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        criteria.select(builder.construct(BookingView.class,
+                        booking.get("id"), booking.get("start"), booking.get("end"), booking.get("status"),
+                        item.get("id"), item.get("name"), booking.get("booker").get("id")))
+                .where(predicates(builder, booking, item, query))
+                .orderBy(builder.desc(booking.get("start")), builder.desc(booking.get("id")));
+        return entityManager.createQuery(criteria);
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder builder, Root<Booking> booking, Join<Booking, Item> item,
+                                          BookingQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        switch (query.getRole()) {
+            case BOOKER:
+                predicates.add(builder.equal(booking.get("booker").get("id"), query.getUserId()));
+                break;
+            case OWNER:
+                predicates.add(builder.equal(item.get("owner").get("id"), query.getUserId()));
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестная роль: " + query.getRole());
+        }
+        LocalDateTime now = query.getNow();
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        switch (query.getState()) {
+            case ALL:
+                break;
+            case CURRENT:
+                predicates.add(builder.lessThan(start, now));
+                predicates.add(builder.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(builder.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(builder.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(builder.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(builder.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        KeysetCursor after = query.getAfter();
+        if (!after.isFirst()) {
+            predicates.add(builder.or(
+                    builder.lessThan(start, after.getAfterTime()),
+                    builder.and(builder.equal(start, after.getAfterTime()),
+                            builder.lessThan(booking.<Long>get("id"), after.getAfterId()))));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.repository;
+
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
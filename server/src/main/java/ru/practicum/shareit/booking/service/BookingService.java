@@ -1,19 +1,42 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingView;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(BookingShortDto bookingShortDto, Long userId);
 
+    List<BookingDto> createBookings(List<BookingShortDto> bookingShortDtos, Long userId);
+
     BookingDto approveBooking(Long userId, Long bookingId, Boolean approved);
 
-    List<BookingDto> getAllByOwner(Long userId, BookingState state, Integer from, Integer size);
+    List<BookingDecisionResultDto> approveBookings(Long userId, List<BookingDecisionDto> decisions);
+
+    Slice<BookingView> getAllByOwner(Long userId, BookingState state, Integer from, Integer size);
+
+    Slice<BookingView> getAllByOwnerAfter(Long userId, BookingState state, String cursor, Integer size);
+
+    void streamAllByOwner(Long userId, BookingState state, Consumer<? super BookingView> consumer);
 
-    List<BookingDto> getAllByUser(Long userId, BookingState state, Integer from, Integer size);
+    Slice<BookingView> getAllByUser(Long userId, BookingState state, Integer from, Integer size);
+
+    Slice<BookingView> getAllByUserAfter(Long userId, BookingState state, String cursor, Integer size);
+
+    void streamAllByUser(Long userId, BookingState state, Consumer<? super BookingView> consumer);
 
     BookingDto getById(Long bookingId, Long userId);
+
+    /**
+     * Проверяет, что пользователь существует. Вызывается до потоковой выдачи, чтобы ошибка
+     * вернулась статусом ответа, а не оборвала уже начатое тело.
+     */
+    void checkUser(Long userId);
 }
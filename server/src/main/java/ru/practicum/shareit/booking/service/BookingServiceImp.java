@@ -2,29 +2,38 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingTimeline;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingMapper;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingCursor;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRole;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.model.BookingMapper.toBookingDto;
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
@@ -36,21 +45,176 @@ public class BookingServiceImp implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
-    private final Sort bookingsSort = Sort.by(Sort.Direction.DESC, "start");
+    private final UserExistenceCache userExistenceCache;
+    private final BookingTimeline bookingTimeline;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemWriteLocks itemWriteLocks;
 
-    @Transactional
     @Override
     public BookingDto createBooking(BookingShortDto bookingShortDto, Long userId) {
         log.info("Работает метод: createBooking");
+        BookingDto bookingDto = itemWriteLocks.inTransaction(bookingShortDto.getItemId(),
+                () -> create(bookingShortDto, userId));
+        log.info("Завершил работу метод: createBooking");
+        return bookingDto;
+    }
+
+    @Override
+    public List<BookingDto> createBookings(List<BookingShortDto> bookingShortDtos, Long userId) {
+        log.info("Работает метод: createBookings, бронирований: {}", bookingShortDtos.size());
+        if (bookingShortDtos.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> itemIds = bookingShortDtos.stream()
+                .map(BookingShortDto::getItemId)
+                .collect(Collectors.toSet());
+        List<BookingDto> bookings = itemWriteLocks.inTransaction(itemIds,
+                () -> createAll(bookingShortDtos, userId, itemIds));
+        log.info("Завершил работу метод: createBookings");
+        return bookings;
+    }
+
+    @Override
+    public BookingDto approveBooking(Long userId, Long bookingId, Boolean approved) {
+        log.info("Работает метод: approveBooking");
+        Long itemId = bookingRepository.findItemIdById(bookingId)
+                .orElseThrow(() -> new ObjectNotFoundException("Бронирование с id = " + bookingId + " не найдено"));
+        BookingDto bookingDto = itemWriteLocks.inTransaction(itemId, () -> approve(userId, bookingId, approved));
+        log.info("Завершил работу метод: approveBooking");
+        return bookingDto;
+    }
+
+    @Override
+    public List<BookingDecisionResultDto> approveBookings(Long userId, List<BookingDecisionDto> decisions) {
+        log.info("Работает метод: approveBookings, решений: {}", decisions.size());
+        if (decisions.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> bookingIds = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        List<BookingDecisionResultDto> results = itemWriteLocks.inTransaction(
+                bookingRepository.findItemIdsByIdIn(bookingIds), () -> approveAll(userId, decisions, bookingIds));
+        log.info("Завершил работу метод: approveBookings");
+        return results;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookingView> getAllByUser(Long userId, BookingState state, Integer from, Integer size) {
+        log.info("Работает метод: getAllByUser, state: {}", state);
+        existUser(userId);
+        Slice<BookingView> bookings = findSlice(BookingQuery.ofBooker(userId, state), from, size);
+        log.info("Завершил работу метод: getAllByUser");
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookingView> getAllByOwner(Long userId, BookingState state, Integer from, Integer size) {
+        log.info("Работает метод: getAllByOwner, state: {}", state);
+        existUser(userId);
+        Slice<BookingView> bookings = findSlice(BookingQuery.ofOwner(userId, state), from, size);
+        log.info("Завершил работу метод: getAllByOwner");
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookingView> getAllByUserAfter(Long userId, BookingState state, String cursor, Integer size) {
+        log.info("Работает метод: getAllByUserAfter, state: {}, cursor: {}", state, cursor);
+        existUser(userId);
+        Slice<BookingView> bookings = findSlice(BookingQuery.ofBooker(userId, state)
+                .withAfter(BookingCursor.decode(cursor, BookingRole.BOOKER, userId, state)), 0, size);
+        log.info("Завершил работу метод: getAllByUserAfter");
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookingView> getAllByOwnerAfter(Long userId, BookingState state, String cursor, Integer size) {
+        log.info("Работает метод: getAllByOwnerAfter, state: {}, cursor: {}", state, cursor);
+        existUser(userId);
+        Slice<BookingView> bookings = findSlice(BookingQuery.ofOwner(userId, state)
+                .withAfter(BookingCursor.decode(cursor, BookingRole.OWNER, userId, state)), 0, size);
+        log.info("Завершил работу метод: getAllByOwnerAfter");
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllByUser(Long userId, BookingState state, Consumer<? super BookingView> consumer) {
+        log.info("Работает метод: streamAllByUser, state: {}", state);
+        existUser(userId);
+        stream(BookingQuery.ofBooker(userId, state), consumer);
+        log.info("Завершил работу метод: streamAllByUser");
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllByOwner(Long userId, BookingState state, Consumer<? super BookingView> consumer) {
+        log.info("Работает метод: streamAllByOwner, state: {}", state);
+        existUser(userId);
+        stream(BookingQuery.ofOwner(userId, state), consumer);
+        log.info("Завершил работу метод: streamAllByOwner");
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BookingDto getById(Long bookingId, Long userId) {
+        log.info("Работает метод: getById");
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ObjectNotFoundException("Бронирование с id = " + bookingId + " не найдено"));
+        Long bookerId = booking.getBooker().getId();
+        Long ownerId = booking.getItem().getOwner().getId();
+        if ((Objects.equals(userId, bookerId) || Objects.equals(userId, ownerId))) {
+            log.info("Завершил работу метод: getById");
+            return toBookingDto(booking);
+        } else {
+            throw new ObjectNotFoundException("Бронирование с id = " + bookingId + " может просматривать только владелец");
+        }
+    }
+
+    @Override
+    public void checkUser(Long userId) {
+        existUser(userId);
+    }
+
+    private void existUser(Long userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new ObjectNotFoundException("Пользователь с id: " + userId + " не найден");
+        }
+    }
+
+    private BookingDto create(BookingShortDto bookingShortDto, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id: " + userId + " не найден"));
         long itemId = bookingShortDto.getItemId();
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ObjectNotFoundException("Вещь с id = " + itemId + " не найдена"));
+        return toBookingDto(reserve(bookingShortDto, user, item));
+    }
+
+    private List<BookingDto> createAll(List<BookingShortDto> bookingShortDtos, Long userId, Set<Long> itemIds) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id: " + userId + " не найден"));
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<BookingDto> bookings = new ArrayList<>(bookingShortDtos.size());
+        for (BookingShortDto bookingShortDto : bookingShortDtos) {
+            Long itemId = bookingShortDto.getItemId();
+            Item item = Optional.ofNullable(items.get(itemId))
+                    .orElseThrow(() -> new ObjectNotFoundException("Вещь с id = " + itemId + " не найдена"));
+            bookings.add(toBookingDto(reserve(bookingShortDto, user, item)));
+        }
+        return bookings;
+    }
+
+    private Booking reserve(BookingShortDto bookingShortDto, User user, Item item) {
         if (!item.getAvailable()) {
             throw new BadRequestException("Вещь уже забронирована");
         }
-        if (item.getOwner().getId().equals(userId)) {
+        if (item.getOwner().getId().equals(user.getId())) {
             throw new ObjectNotFoundException("Владелец не может забронировать вещь");
         }
 
@@ -63,14 +227,12 @@ public class BookingServiceImp implements BookingService {
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(WAITING);
-        log.info("Завершил работу метод: createBooking");
-        return toBookingDto(bookingRepository.save(booking));
+        bookingIntervalIndex.reserve(booking, () -> bookingRepository.save(booking));
+        bookingTimeline.update(booking);
+        return booking;
     }
 
-    @Transactional
-    @Override
-    public BookingDto approveBooking(Long userId, Long bookingId, Boolean approved) {
-        log.info("Работает метод: approveBooking");
+    private BookingDto approve(Long userId, Long bookingId, Boolean approved) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ObjectNotFoundException("Бронирование с id = " + bookingId + " не найдено"));
         if (!booking.getStatus().equals(WAITING)) {
@@ -82,6 +244,9 @@ public class BookingServiceImp implements BookingService {
         if (!userId.equals(booking.getItem().getOwner().getId())) {
             throw new ObjectNotFoundException("Подтвердить бронирование может только владелец вещи");
         }
+        if (Boolean.TRUE.equals(approved) && isStarted(booking)) {
+            throw new BadRequestException("Начало бронирования id = " + bookingId + " уже наступило");
+        }
         if (Boolean.TRUE.equals(approved)) {
             log.info("Статус APPROVED");
             booking.setStatus(APPROVED);
@@ -89,105 +254,57 @@ public class BookingServiceImp implements BookingService {
             log.info("Статус REJECTED");
             booking.setStatus(REJECTED);
         }
-        log.info("Завершил работу метод: approveBooking");
+        bookingIntervalIndex.update(booking);
+        bookingTimeline.update(booking);
         return toBookingDto(booking);
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public List<BookingDto> getAllByUser(Long userId, BookingState state, Integer from, Integer size) {
-        log.info("Работает метод: getAllByUser");
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id: " + userId + " не найден"));
-        List<Booking> bookingsList = new ArrayList<>();
-
-        Pageable pageable = PageRequest.of(from / size, size, bookingsSort);
-
-        log.info("state: {}", state);
-        switch (state) {
-            case ALL:
-                bookingsList.addAll(bookingRepository.findAllByBooker(user, pageable).toList());
-                break;
-            case CURRENT:
-                bookingsList.addAll(bookingRepository.findAllByBookerAndStartBeforeAndEndAfter(user,
-                        LocalDateTime.now(), LocalDateTime.now(), pageable).toList());
-                break;
-            case PAST:
-                bookingsList.addAll(bookingRepository.findAllByBookerAndEndBefore(user,
-                        LocalDateTime.now(), pageable).toList());
-                break;
-            case FUTURE:
-                bookingsList.addAll(bookingRepository.findAllByBookerAndStartAfter(user, LocalDateTime.now(), pageable).toList());
-                break;
-            case WAITING:
-                bookingsList.addAll(bookingRepository.findAllByBookerAndStatusEquals(user, WAITING, pageable).toList());
-                break;
-            case REJECTED:
-                bookingsList.addAll(bookingRepository.findAllByBookerAndStatusEquals(user, REJECTED, pageable).toList());
-                break;
-            default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+    private List<BookingDecisionResultDto> approveAll(Long userId, List<BookingDecisionDto> decisions,
+                                                      Set<Long> bookingIds) {
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> decided = new HashSet<>();
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (BookingDecisionDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            String error = null;
+            if (booking == null || !userId.equals(booking.getItem().getOwner().getId())) {
+                error = "Бронирование с id = " + bookingId + " не найдено у владельца";
+            } else if (!decided.add(bookingId)) {
+                error = "Повторное решение по бронированию";
+            } else if (booking.getStatus() != WAITING) {
+                error = "Бронирование уже в статусе " + booking.getStatus();
+            } else if (Boolean.TRUE.equals(decision.getApproved()) && isStarted(booking)) {
+                error = "Начало бронирования уже наступило";
+            }
+            if (error != null) {
+                results.add(new BookingDecisionResultDto(bookingId, null, error));
+                continue;
+            }
+            booking.setStatus(Boolean.TRUE.equals(decision.getApproved()) ? APPROVED : REJECTED);
+            bookingIntervalIndex.update(booking);
+            bookingTimeline.update(booking);
+            results.add(new BookingDecisionResultDto(bookingId, booking.getStatus(), null));
         }
-        log.info("Завершил работу метод: getAllByUser");
-        return bookingsList.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return results;
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public List<BookingDto> getAllByOwner(Long userId, BookingState state, Integer from, Integer size) {
-        log.info("Работает метод: getAllByOwner");
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id: " + userId + " не найден"));
-        List<Booking> bookingsList = new ArrayList<>();
-
-        Pageable pageable = PageRequest.of(from / size, size, bookingsSort);
-
-        log.info("state: {}", state);
-        switch (state) {
-            case ALL:
-                bookingsList.addAll(bookingRepository.findAllByItemOwner(user, pageable).toList());
-                break;
-            case CURRENT:
-                bookingsList.addAll(bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfter(user,
-                        LocalDateTime.now(), LocalDateTime.now(), pageable).toList());
-                break;
-            case PAST:
-                bookingsList.addAll(bookingRepository.findAllByItemOwnerAndEndBefore(user,
-                        LocalDateTime.now(), pageable).toList());
-                break;
-            case FUTURE:
-                bookingsList.addAll(bookingRepository.findAllByItemOwnerAndStartAfter(user, LocalDateTime.now(), pageable).toList());
-                break;
-            case WAITING:
-                bookingsList.addAll(bookingRepository.findAllByItemOwnerAndStatusEquals(user, WAITING, pageable).toList());
-                break;
-            case REJECTED:
-                bookingsList.addAll(bookingRepository.findAllByItemOwnerAndStatusEquals(user, REJECTED, pageable).toList());
-                break;
-            default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        log.info("Завершил работу метод: getAllByOwner");
-        return bookingsList.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+    /**
+     * WAITING-бронирование с наступившим start уже не занимает интервал в BookingIntervalIndex,
+     * и его место могло достаться другому бронированию, поэтому подтвердить его нельзя.
+     */
+    private static boolean isStarted(Booking booking) {
+        return booking.getStart().isBefore(LocalDateTime.now());
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public BookingDto getById(Long bookingId, Long userId) {
-        log.info("Работает метод: getById");
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ObjectNotFoundException("Бронирование с id = " + bookingId + " не найдено"));
-        Long bookerId = booking.getBooker().getId();
-        Long ownerId = booking.getItem().getOwner().getId();
-        if ((Objects.equals(userId, bookerId) || Objects.equals(userId, ownerId))) {
-            log.info("Завершил работу метод: getById");
-            return toBookingDto(booking);
-        } else {
-            throw new ObjectNotFoundException("Бронирование с id = " + bookingId + " может просматривать только владелец");
+    private Slice<BookingView> findSlice(BookingQuery query, long offset, int size) {
+        return bookingRepository.findSlice(query, offset, size);
+    }
+
+    private void stream(BookingQuery query, Consumer<? super BookingView> consumer) {
+        try (Stream<BookingView> bookings = bookingRepository.stream(query)) {
+            bookings.forEach(consumer);
         }
     }
 }
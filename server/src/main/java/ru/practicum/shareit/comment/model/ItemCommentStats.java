@@ -0,0 +1,34 @@
+package ru.practicum.shareit.comment.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Агрегаты комментариев вещи: количество и время последнего комментария.
+ * Обновляются инкрементально при создании комментария, поэтому карточке вещи
+ * не нужно пересчитывать их по таблице comments.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@Table(name = "item_comment_stats")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemCommentStats {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+
+    @Version
+    private long version;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.comment.repository;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.comment.dto.CommentDto;
+
+import java.util.Optional;
+
+/**
+ * Курсор комментариев вещи в порядке (created desc, id desc), привязанный к вещи.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CommentCursor {
+
+    public static KeysetCursor decode(String cursor, long itemId) {
+        return KeysetCursor.decode(cursor, scope(itemId));
+    }
+
+    public static Optional<String> next(Slice<CommentDto> page, long itemId) {
+        return KeysetCursor.next(page, scope(itemId), CommentDto::getId, CommentDto::getCreated);
+    }
+
+    private static String scope(long itemId) {
+        return "comments:" + itemId;
+    }
+}
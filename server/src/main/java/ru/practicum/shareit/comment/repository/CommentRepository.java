@@ -1,13 +1,36 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.comment.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
-    List<Comment> findByItem(Item item);
-}
+    /**
+     * id последних limit комментариев каждой вещи. Драйверы возвращают BIGINT
+     * из нативного запроса по-разному, поэтому тип элемента - Number.
+     */
+    @Query(value = "select ranked.id from (" +
+            "select c.id, row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn " +
+            "from comments c where c.item_id in (:itemIds)) ranked " +
+            "where ranked.rn <= :limit", nativeQuery = true)
+    List<Number> findLatestIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select c from Comment c join fetch c.author where c.id in :ids order by c.created, c.id")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Query("select c from Comment c join fetch c.author where c.item.id = :itemId order by c.created desc, c.id desc")
+    Slice<Comment> findPageByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("select c from Comment c join fetch c.author where c.item.id = :itemId " +
+            "and (c.created < :created or (c.created = :created and c.id < :id)) order by c.created desc, c.id desc")
+    Slice<Comment> findPageByItemIdAfter(@Param("itemId") Long itemId, @Param("created") LocalDateTime created,
+                                         @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.comment.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.comment.model.ItemCommentStats;
+
+public interface ItemCommentStatsRepository extends JpaRepository<ItemCommentStats, Long> {
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.comment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный LRU-кэш пар (пользователь, вещь), для которых уже известно завершенное
+ * APPROVED-бронирование. Такое бронирование не может перестать быть завершенным и подтвержденным,
+ * поэтому записи не устаревают и вытесняются только по размеру. Отсутствие пары в кэше
+ * ничего не означает - решение тогда принимает запрос к базе.
+ */
+@Component
+public class CommentEligibilityCache {
+    private final int maxSize;
+    private final Map<Key, Boolean> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public CommentEligibilityCache(@Value("${shareit.comment.eligibility.max-size:10000}") int maxSize,
+                                   MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > CommentEligibilityCache.this.maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter("shareit.comment.eligibility.requests", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.comment.eligibility.requests", "result", "miss");
+        meterRegistry.gauge("shareit.comment.eligibility.size", this, CommentEligibilityCache::size);
+    }
+
+    public boolean contains(Long bookerId, Long itemId) {
+        boolean found;
+        synchronized (this) {
+            found = entries.get(new Key(bookerId, itemId)) != null;
+        }
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    public synchronized void add(Long bookerId, Long itemId) {
+        entries.put(new Key(bookerId, itemId), Boolean.TRUE);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final Long bookerId;
+        private final Long itemId;
+    }
+}
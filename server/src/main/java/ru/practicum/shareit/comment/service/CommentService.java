@@ -1,9 +1,12 @@
 package ru.practicum.shareit.comment.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentShortDto;
 
 public interface CommentService {
 
     CommentDto createComment(Long itemId, Long userId, CommentShortDto commentShortDto);
+
+    Slice<CommentDto> getComments(Long userId, Long itemId, String cursor, Integer size);
 }
@@ -2,22 +2,30 @@ package ru.practicum.shareit.comment.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentShortDto;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.model.CommentMapper;
+import ru.practicum.shareit.comment.model.ItemCommentStats;
+import ru.practicum.shareit.comment.repository.CommentCursor;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.comment.repository.ItemCommentStatsRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
 
 import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
 import static ru.practicum.shareit.comment.model.CommentMapper.toCommentDto;
@@ -27,26 +35,58 @@ import static ru.practicum.shareit.comment.model.CommentMapper.toCommentDto;
 @RequiredArgsConstructor
 public class CommentServiceImp implements CommentService {
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
     private final BookingRepository bookingRepository;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final ItemWriteLocks itemWriteLocks;
 
-    @Transactional
+    /**
+     * Комментарий и агрегаты вещи записываются под блокировкой вещи: счетчик item_comment_stats
+     * увеличивается без потерянных обновлений, а его первая строка создается ровно один раз.
+     */
     @Override
     public CommentDto createComment(Long itemId, Long userId, CommentShortDto commentShortDto) {
         log.info("Работает метод: createComment");
+        CommentDto commentDto = itemWriteLocks.inTransaction(itemId, () -> create(itemId, userId, commentShortDto));
+        log.info("Завершил работу метод: createComment");
+        return commentDto;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<CommentDto> getComments(Long userId, Long itemId, String cursor, Integer size) {
+        log.info("Работает метод: getComments, itemId = {}, cursor: {}", itemId, cursor);
+        if (!userExistenceCache.exists(userId)) {
+            throw new ObjectNotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Вещь с id = " + itemId + " осутствует");
+        }
+        KeysetCursor after = CommentCursor.decode(cursor, itemId);
+        PageRequest page = PageRequest.of(0, size);
+        Slice<Comment> comments = after.isFirst()
+                ? commentRepository.findPageByItemId(itemId, page)
+                : commentRepository.findPageByItemIdAfter(itemId, after.getAfterTime(), after.getAfterId(), page);
+        log.info("Завершил работу метод: getComments");
+        return comments.map(CommentMapper::toCommentDto);
+    }
+
+    private CommentDto create(Long itemId, Long userId, CommentShortDto commentShortDto) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id = " + userId + " не найден"));
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ObjectNotFoundException("Вещь с id = " + itemId + " осутствует"));
 
-        bookingRepository.findAll().stream()
-                .filter(booking -> Objects.equals(booking.getItem().getId(), itemId))
-                .filter(booking -> booking.getStatus() == APPROVED)
-                .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                .filter(booking -> Objects.equals(booking.getBooker().getId(), userId))
-                .findFirst()
-                .orElseThrow(() -> new BadRequestException("Вы не можете оставить комментарий"));
+        if (!commentEligibilityCache.contains(userId, itemId)) {
+            if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId, APPROVED,
+                    LocalDateTime.now())) {
+                throw new BadRequestException("Вы не можете оставить комментарий");
+            }
+            commentEligibilityCache.add(userId, itemId);
+        }
 
         Comment comment = Comment.builder()
                 .text(commentShortDto.getText())
@@ -55,11 +95,12 @@ public class CommentServiceImp implements CommentService {
                 .created(LocalDateTime.now())
                 .build();
         commentRepository.save(comment);
-
-        log.info("Завершил работу метод: createComment");
+        ItemCommentStats stats = itemCommentStatsRepository.findById(itemId)
+                .orElseGet(() -> ItemCommentStats.builder().itemId(itemId).build());
+        stats.setCommentCount(stats.getCommentCount() + 1);
+        stats.setLastCommentAt(comment.getCreated());
+        itemCommentStatsRepository.save(stats);
         return toCommentDto(comment);
     }
 
 }
-
-
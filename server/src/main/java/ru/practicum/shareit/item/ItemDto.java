@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -36,4 +38,11 @@ public class ItemDto {
     private BookingDtoResponse lastBooking;
 
     private List<CommentDto> comments;
+
+    private Long commentCount;
+
+    private LocalDateTime lastCommentAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
 }
@@ -1,14 +1,29 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.NdjsonBody;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.comment.repository.CommentCursor;
 import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.item.ItemAvailabilityDto;
 import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchPage;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -18,15 +33,28 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
+    private final ObjectMapper objectMapper;
     private static final String SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final int DEFAULT_AVAILABILITY_DAYS = 90;
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader(SHARER_USER_ID) long userId) {
+    public List<ItemDto> getAllItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                     @PositiveOrZero @RequestParam(required = false) Integer from,
+                                     @Positive @RequestParam(required = false) Integer size) {
         log.info("Работает: ItemController.getAllItems");
-        return itemService.getAllItems(userId);
+        return itemService.getAllItems(userId, from, size);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllItems(@RequestHeader(SHARER_USER_ID) long userId) {
+        log.info("Работает: ItemController.streamAllItems");
+        itemService.checkUser(userId);
+        return NdjsonBody.of(objectMapper, consumer -> itemService.streamAllItems(userId, consumer));
     }
 
     @GetMapping("/{itemId}")
@@ -35,6 +63,18 @@ public class ItemController {
         return itemService.getItemById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader(SHARER_USER_ID) long userId, @PathVariable long itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Работает: ItemController.getAvailability");
+        LocalDateTime start = from == null ? LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) : from;
+        LocalDateTime end = to == null ? start.plusDays(DEFAULT_AVAILABILITY_DAYS) : to;
+        return itemService.getAvailability(userId, itemId, start, end);
+    }
+
     @PostMapping
     public ItemDto createItem(@RequestHeader(SHARER_USER_ID) long userId, @RequestBody ItemDto itemDto) {
         log.info("Работает: ItemController.createItem");
@@ -49,9 +89,46 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestHeader(SHARER_USER_ID) long userId, @RequestParam("text") String text) {
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                                     @RequestParam("text") String text,
+                                                     @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                     @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                     @RequestParam(required = false) String cursor) {
         log.info("Работает: ItemController.searchItems");
-        return itemService.searchItems(userId, text);
+        ItemSearchPage page = itemService.searchItems(userId, text, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            response.header(NEXT_CURSOR, page.getNext().encode(text));
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamSearchItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                                   @RequestParam("text") String text) {
+        log.info("Работает: ItemController.streamSearchItems");
+        itemService.checkUser(userId);
+        return NdjsonBody.of(objectMapper, consumer -> itemService.streamSearchItems(userId, text, consumer));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItems(@RequestHeader(SHARER_USER_ID) long userId,
+                                     @RequestParam("prefix") String prefix,
+                                     @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Работает: ItemController.suggestItems");
+        return itemService.suggestItems(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@RequestHeader(SHARER_USER_ID) long userId,
+                                                        @PathVariable long itemId,
+                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false) String cursor) {
+        log.info("Работает: ItemController.getComments");
+        Slice<CommentDto> comments = commentService.getComments(userId, itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        CommentCursor.next(comments, itemId).ifPresent(next -> response.header(NEXT_CURSOR, next));
+        return response.body(comments.getContent());
     }
 
     @PostMapping("/{itemId}/comment")
@@ -15,6 +15,17 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(@NonNull ItemView itemView) {
+        return ItemDto
+                .builder()
+                .id(itemView.getId())
+                .name(itemView.getName())
+                .description(itemView.getDescription())
+                .available(itemView.getAvailable())
+                .requestId(itemView.getRequestId())
+                .build();
+    }
+
     public static Item toItem(@NonNull ItemDto itemDto) {
         return Item
                 .builder()
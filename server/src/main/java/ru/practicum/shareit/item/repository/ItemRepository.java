@@ -1,12 +1,65 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByRequestId(Long requestId);
+    String FETCH_SIZE = "100";
+    String SEARCH_AVAILABLE_FULL_TEXT = "SELECT id, name, description, is_available AS \"available\", " +
+            "request_id AS \"requestId\" " +
+            "FROM items " +
+            "WHERE is_available = TRUE AND search_text LIKE CONCAT('%', :text, '%') AND id > :afterId " +
+            "ORDER BY id";
+    String SEARCH_AVAILABLE = "select i.id as id, i.name as name, i.description as description, " +
+            "i.available as available, r.id as requestId " +
+            "from Item i left join i.request r " +
+            "where i.available = true and i.id > :afterId " +
+            "and (lower(i.name) like concat('%', :text, '%') or lower(i.description) like concat('%', :text, '%')) " +
+            "order by i.id";
 
-    List<Item> findAllByRequestIdIn(List<Long> listId);
+    @EntityGraph(attributePaths = {"owner", "request", "request.requester"})
+    List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"owner", "request", "request.requester"})
+    List<Item> findAllByOwnerId(Long ownerId, Sort sort);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @EntityGraph(attributePaths = {"owner", "request", "request.requester"})
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    Stream<Item> streamAllByOwnerIdOrderById(Long ownerId);
+
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "i.request.id as requestId from Item i where i.request.id in :requestIds order by i.id")
+    List<ItemView> findViewsByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query(value = SEARCH_AVAILABLE_FULL_TEXT, nativeQuery = true)
+    Slice<ItemView> searchAvailableFullText(@Param("text") String text, @Param("afterId") long afterId,
+                                            Pageable pageable);
+
+    @Query(value = SEARCH_AVAILABLE_FULL_TEXT, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = FETCH_SIZE))
+    Stream<ItemView> streamAvailableFullText(@Param("text") String text, @Param("afterId") long afterId);
+
+    @Query(SEARCH_AVAILABLE)
+    Slice<ItemView> searchAvailable(@Param("text") String text, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query(SEARCH_AVAILABLE)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = FETCH_SIZE))
+    Stream<ItemView> streamAvailable(@Param("text") String text, @Param("afterId") long afterId);
 }
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Поиск средствами базы данных. На PostgreSQL (shareit.search.full-text=true) запрос идет
+ * по сгенерированной колонке search_text с GIN-индексом pg_trgm, на H2 - через LIKE по name и description.
+ * Фильтр доступности, курсор и ограничение выборки выполняются в SQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database")
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Value("${shareit.search.full-text:false}")
+    private boolean fullText;
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemSearchPage search(String text, ItemSearchCursor cursor, Pageable pageable) {
+        String pattern = escapeLike(text.trim().toLowerCase(Locale.ROOT));
+        Slice<ItemView> items = fullText
+                ? itemRepository.searchAvailableFullText(pattern, cursor.getAfterId(), pageable)
+                : itemRepository.searchAvailable(pattern, cursor.getAfterId(), pageable);
+        List<ItemView> content = items.getContent();
+        ItemSearchCursor next = items.hasNext() && !content.isEmpty()
+                ? ItemSearchCursor.after(content.get(content.size() - 1).getId(), null, null)
+                : null;
+        return new ItemSearchPage(content.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()), next);
+    }
+
+    @Override
+    public Stream<ItemDto> stream(String text) {
+        String pattern = escapeLike(text.trim().toLowerCase(Locale.ROOT));
+        Stream<ItemView> items = fullText
+                ? itemRepository.streamAvailableFullText(pattern, ItemSearchCursor.FIRST.getAfterId())
+                : itemRepository.streamAvailable(pattern, ItemSearchCursor.FIRST.getAfterId());
+        return items.map(ItemMapper::toItemDto);
+    }
+
+    @Override
+    public void index(Item item) {
+        log.debug("Вещь id = {} индексируется базой данных", item.getId());
+    }
+
+    @Override
+    public void remove(Collection<Long> itemIds) {
+        log.debug("Вещи {} удаляются из поиска базой данных", itemIds);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
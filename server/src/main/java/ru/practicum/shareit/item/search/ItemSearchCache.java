@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный по размеру и времени жизни LRU-кэш результатов поиска вещей.
+ * Любое изменение вещи увеличивает поколение кэша: результаты, посчитанные
+ * до изменения, больше не отдаются и не сохраняются.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long generation;
+
+    @Autowired
+    public ItemSearchCache(@Value("${shareit.search.cache.max-size:1000}") int maxSize,
+                           @Value("${shareit.search.cache.ttl:60s}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > ItemSearchCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = meterRegistry.counter("shareit.search.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.search.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("shareit.search.cache.evictions");
+        meterRegistry.gauge("shareit.search.cache.size", this, ItemSearchCache::size);
+    }
+
+    public ItemSearchPage get(String text, String cursor, long offset, int size, Supplier<ItemSearchPage> loader) {
+        Key key = new Key(text.trim().toLowerCase(Locale.ROOT), cursor == null ? "" : cursor, offset, size);
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.getCreatedAt() < ttlNanos) {
+                hits.increment();
+                return entry.getPage();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+        ItemSearchPage page = loader.get();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(key, new Entry(page, System.nanoTime()));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Сбрасывает кэш после фиксации текущей транзакции, чтобы поиск, выполненный
+     * до коммита, не закэшировал старое состояние вещи.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+        log.debug("Кэш поиска вещей сброшен, поколение: {}", generation);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String text;
+        private final String cursor;
+        private final long offset;
+        private final int size;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final ItemSearchPage page;
+        private final long createdAt;
+    }
+}
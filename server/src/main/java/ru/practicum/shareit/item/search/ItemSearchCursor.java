@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang.StringUtils;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Непрозрачный курсор постраничного поиска: id и, для ранжированной выдачи, релевантность
+ * последней отданной вещи вместе со статистикой, по которой она посчитана. Курсор привязан
+ * к тексту запроса.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemSearchCursor {
+    public static final ItemSearchCursor FIRST = new ItemSearchCursor(0L, null, null);
+    private static final int VALUES = 5;
+    private static final String IDF_SEPARATOR = ",";
+
+    private final long afterId;
+    private final Double afterScore;
+    @Getter(AccessLevel.PACKAGE)
+    private final ItemSearchStats stats;
+
+    static ItemSearchCursor after(long afterId, Double afterScore, ItemSearchStats stats) {
+        return new ItemSearchCursor(afterId, afterScore, stats);
+    }
+
+    public static ItemSearchCursor decode(String cursor, String text) {
+        if (StringUtils.isBlank(cursor)) {
+            return FIRST;
+        }
+        String[] values = KeysetCursor.decodeValues(cursor, scope(text), VALUES);
+        try {
+            long afterId = Long.parseLong(values[0]);
+            if (values[1].isEmpty()) {
+                return new ItemSearchCursor(afterId, null, null);
+            }
+            double[] idf = Arrays.stream(values[4].split(IDF_SEPARATOR))
+                    .mapToDouble(Double::parseDouble)
+                    .toArray();
+            ItemSearchStats stats = new ItemSearchStats(Double.parseDouble(values[2]),
+                    Double.parseDouble(values[3]), idf);
+            double afterScore = Double.parseDouble(values[1]);
+            if (Double.isNaN(afterScore) || stats.getAverageNameLength() <= 0
+                    || stats.getAverageDescriptionLength() <= 0) {
+                throw new NumberFormatException(values[1]);
+            }
+            return new ItemSearchCursor(afterId, afterScore, stats);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор поиска: " + cursor);
+        }
+    }
+
+    public String encode(String text) {
+        if (afterScore == null) {
+            return KeysetCursor.encode(scope(text), String.valueOf(afterId), "", "", "", "");
+        }
+        return KeysetCursor.encode(scope(text), String.valueOf(afterId), String.valueOf(afterScore),
+                String.valueOf(stats.getAverageNameLength()), String.valueOf(stats.getAverageDescriptionLength()),
+                Arrays.stream(stats.getIdf())
+                        .mapToObj(String::valueOf)
+                        .collect(Collectors.joining(IDF_SEPARATOR)));
+    }
+
+    private static String scope(String text) {
+        return "search:" + text.trim().toLowerCase(Locale.ROOT);
+    }
+}
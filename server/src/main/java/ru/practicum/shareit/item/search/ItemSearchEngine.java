@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface ItemSearchEngine {
+
+    /**
+     * Страница выдачи после cursor и курсор следующей страницы.
+     */
+    ItemSearchPage search(String text, ItemSearchCursor cursor, Pageable pageable);
+
+    /**
+     * Все найденные вещи в порядке выдачи search. Поток нужно закрыть, для базы данных - внутри транзакции.
+     */
+    Stream<ItemDto> stream(String text);
+
+    /**
+     * Индексирует созданную или измененную вещь; изменение применяется после коммита текущей транзакции.
+     */
+    void index(Item item);
+
+    /**
+     * Убирает вещи из выдачи после коммита текущей транзакции, например удаленные вместе с владельцем.
+     */
+    void remove(Collection<Long> itemIds);
+}
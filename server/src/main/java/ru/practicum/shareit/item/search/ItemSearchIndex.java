@@ -0,0 +1,499 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ранжирующий индекс вещей по словам из name и description.
+ * Слова запроса сопоставляются со словарем индекса по подстроке, а при отсутствии
+ * совпадений - с точностью до опечатки (кандидаты по триграммам, проверка расстоянием
+ * Левенштейна). Слова короче триграммы ищутся по отдельному словарю их подстрок.
+ * Вещи, содержащие все слова запроса, упорядочиваются по BM25F, совпадение в названии
+ * весит больше совпадения в описании. Статистика коллекции фиксируется первой страницей
+ * и передается в курсоре, поэтому следующие страницы ранжируются по тем же оценкам.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PARTIAL_MATCH = 0.8;
+    private static final double FUZZY_MATCH = 0.5;
+    private static final Comparator<ScoredItem> RANKING = Comparator.comparingDouble(ScoredItem::getScore).reversed()
+            .thenComparing(scoredItem -> scoredItem.getItem().getId());
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Map<String, Map<Long, Occurrences>> postings = new HashMap<>();
+    private final Map<String, Set<String>> dictionaryGrams = new HashMap<>();
+    private final Map<String, Set<String>> shortGrams = new HashMap<>();
+    private long nameLengthSum;
+    private long descriptionLengthSum;
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Работает метод: rebuild, построение индекса поиска вещей");
+        List<Item> allItems = itemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            postings.clear();
+            dictionaryGrams.clear();
+            shortGrams.clear();
+            nameLengthSum = 0;
+            descriptionLengthSum = 0;
+            allItems.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс поиска вещей построен, проиндексировано вещей: {}, слов в словаре: {}",
+                allItems.size(), postings.size());
+    }
+
+    /**
+     * Переиндексирует вещь после коммита текущей транзакции, чтобы откат не оставил
+     * в выдаче несуществующую вещь или ее старые name и description.
+     */
+    @Override
+    public void index(Item item) {
+        afterCommit(() -> {
+            remove(item.getId());
+            add(item);
+        });
+    }
+
+    @Override
+    public void remove(Collection<Long> itemIds) {
+        afterCommit(() -> itemIds.forEach(this::remove));
+    }
+
+    /**
+     * Применяет изменение индекса под блокировкой записи после коммита текущей транзакции.
+     */
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    @Override
+    public ItemSearchPage search(String text, ItemSearchCursor cursor, Pageable pageable) {
+        SearchPage page = find(terms(text), cursor.getStats(), cursor, pageable);
+        return new ItemSearchPage(page.getItems().stream()
+                .map(ScoredItem::toItemDto)
+                .collect(Collectors.toList()), page.isHasNext() ? page.nextCursor() : null);
+    }
+
+    /**
+     * Выдача читается порциями по STREAM_CHUNK_SIZE вещей, каждая - под своей блокировкой чтения.
+     * Статистика коллекции фиксируется первой порцией, поэтому изменения индекса между порциями
+     * не меняют релевантность уже ранжированных вещей и не дают повторов и пропусков на границах.
+     */
+    @Override
+    public Stream<ItemDto> stream(String text) {
+        List<String> terms = terms(text);
+        Pageable chunk = PageRequest.of(0, STREAM_CHUNK_SIZE);
+        return Stream.iterate(find(terms, null, ItemSearchCursor.FIRST, chunk),
+                        page -> !page.getItems().isEmpty(),
+                        page -> page.isHasNext()
+                                ? find(terms, page.getStats(), page.nextCursor(), chunk)
+                                : SearchPage.EMPTY)
+                .flatMap(page -> page.getItems().stream())
+                .map(ScoredItem::toItemDto);
+    }
+
+    private SearchPage find(List<String> terms, ItemSearchStats stats, ItemSearchCursor cursor, Pageable pageable) {
+        if (terms.isEmpty()) {
+            return SearchPage.EMPTY;
+        }
+        if (stats != null && stats.getIdf().length != terms.size()) {
+            throw new BadRequestException("Курсор поиска не соответствует запросу");
+        }
+        lock.readLock().lock();
+        try {
+            ItemSearchStats current = stats == null ? currentStats() : stats;
+            List<Map<Long, Double>> termFrequencies = new ArrayList<>();
+            for (String term : terms) {
+                Map<Long, Double> frequencies = termFrequencies(expand(term), current);
+                if (frequencies.isEmpty()) {
+                    return SearchPage.EMPTY;
+                }
+                termFrequencies.add(frequencies);
+            }
+            if (stats == null) {
+                current = current.withIdf(termFrequencies.stream()
+                        .mapToDouble(frequencies -> idf(frequencies.size()))
+                        .toArray());
+            }
+            int limit = pageable.isPaged()
+                    ? (int) Math.min(Integer.MAX_VALUE - 1, pageable.getOffset() + pageable.getPageSize())
+                    : Integer.MAX_VALUE - 1;
+            List<ScoredItem> ranked = rank(termFrequencies, current.getIdf(), cursor, limit + 1);
+            int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+            return new SearchPage(ranked.subList(offset, Math.min(limit, ranked.size())), current,
+                    ranked.size() > limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ItemSearchStats currentStats() {
+        double averageNameLength = items.isEmpty() ? 1 : Math.max(1.0, (double) nameLengthSum / items.size());
+        double averageDescriptionLength = items.isEmpty() ? 1
+                : Math.max(1.0, (double) descriptionLengthSum / items.size());
+        return new ItemSearchStats(averageNameLength, averageDescriptionLength, null);
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (items.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Слова словаря, соответствующие слову запроса, с коэффициентом качества совпадения.
+     */
+    private Map<String, Double> expand(String term) {
+        Map<String, Double> matched = new HashMap<>();
+        for (String token : substringCandidates(term)) {
+            if (token.contains(term)) {
+                matched.put(token, token.equals(term) ? EXACT_MATCH : PARTIAL_MATCH);
+            }
+        }
+        if (matched.isEmpty()) {
+            matched.putAll(fuzzyMatches(term));
+        }
+        return matched;
+    }
+
+    private Collection<String> substringCandidates(String term) {
+        if (term.length() < GRAM_LENGTH) {
+            return shortGrams.getOrDefault(term, Set.of());
+        }
+        Set<String> grams = grams(term);
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : grams) {
+            Set<String> tokens = dictionaryGrams.get(gram);
+            if (tokens == null) {
+                return List.of();
+            }
+            lists.add(tokens);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Set<String>> others = lists.subList(1, lists.size());
+        return lists.get(0).stream()
+                .filter(token -> others.stream().allMatch(tokens -> tokens.contains(token)))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Double> fuzzyMatches(String term) {
+        int maxEdits = maxEdits(term);
+        if (maxEdits == 0) {
+            return Map.of();
+        }
+        Set<String> grams = grams(term);
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : grams) {
+            for (String token : dictionaryGrams.getOrDefault(gram, Set.of())) {
+                sharedGrams.merge(token, 1, Integer::sum);
+            }
+        }
+        int required = Math.max(1, grams.size() - maxEdits * GRAM_LENGTH);
+        Map<String, Double> matched = new HashMap<>();
+        sharedGrams.forEach((token, shared) -> {
+            if (shared < required || Math.abs(token.length() - term.length()) > maxEdits) {
+                return;
+            }
+            int distance = levenshtein(term, token, maxEdits);
+            if (distance <= maxEdits) {
+                matched.put(token, FUZZY_MATCH / distance);
+            }
+        });
+        return matched;
+    }
+
+    /**
+     * Взвешенная и нормированная по длине полей частота слова запроса (BM25F) для каждой доступной вещи.
+     */
+    private Map<Long, Double> termFrequencies(Map<String, Double> matchedTokens, ItemSearchStats stats) {
+        Map<Long, Double> frequencies = new HashMap<>();
+        matchedTokens.forEach((token, quality) -> postings.get(token).forEach((itemId, occurrences) -> {
+            IndexedItem indexedItem = items.get(itemId);
+            if (!indexedItem.getAvailable()) {
+                return;
+            }
+            double frequency = NAME_WEIGHT * occurrences.getName()
+                    / (1 - B + B * indexedItem.getNameLength() / stats.getAverageNameLength())
+                    + DESCRIPTION_WEIGHT * occurrences.getDescription()
+                    / (1 - B + B * indexedItem.getDescriptionLength() / stats.getAverageDescriptionLength());
+            frequencies.merge(itemId, quality * frequency, Double::sum);
+        }));
+        return frequencies;
+    }
+
+    /**
+     * Не более limit лучших вещей после курсора в порядке выдачи.
+     */
+    private List<ScoredItem> rank(List<Map<Long, Double>> termFrequencies, double[] idf, ItemSearchCursor cursor,
+                                  int limit) {
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(RANKING.reversed());
+        Map<Long, Double> rarest = Collections.min(termFrequencies, Comparator.comparingInt(Map::size));
+        for (Long itemId : rarest.keySet()) {
+            Double score = score(itemId, termFrequencies, idf);
+            if (score == null || !isAfter(score, itemId, cursor)) {
+                continue;
+            }
+            top.add(new ScoredItem(items.get(itemId), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ScoredItem> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    private static Double score(Long itemId, List<Map<Long, Double>> termFrequencies, double[] idf) {
+        double score = 0;
+        for (int i = 0; i < idf.length; i++) {
+            Double frequency = termFrequencies.get(i).get(itemId);
+            if (frequency == null) {
+                return null;
+            }
+            score += idf[i] * frequency * (K1 + 1) / (frequency + K1);
+        }
+        return score;
+    }
+
+    private static boolean isAfter(double score, long itemId, ItemSearchCursor cursor) {
+        if (cursor.getAfterScore() == null) {
+            return true;
+        }
+        int compare = Double.compare(score, cursor.getAfterScore());
+        return compare < 0 || compare == 0 && itemId > cursor.getAfterId();
+    }
+
+    private void add(Item item) {
+        IndexedItem indexedItem = new IndexedItem(item);
+        items.put(item.getId(), indexedItem);
+        nameLengthSum += indexedItem.getNameLength();
+        descriptionLengthSum += indexedItem.getDescriptionLength();
+        indexedItem.getOccurrences().forEach((token, occurrences) -> {
+            Map<Long, Occurrences> posting = postings.get(token);
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(token, posting);
+                grams(token).forEach(gram -> dictionaryGrams.computeIfAbsent(gram, key -> new HashSet<>()).add(token));
+                shortGrams(token).forEach(gram -> shortGrams.computeIfAbsent(gram, key -> new HashSet<>()).add(token));
+            }
+            posting.put(item.getId(), occurrences);
+        });
+    }
+
+    private void remove(Long itemId) {
+        IndexedItem indexedItem = items.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        nameLengthSum -= indexedItem.getNameLength();
+        descriptionLengthSum -= indexedItem.getDescriptionLength();
+        for (String token : indexedItem.getOccurrences().keySet()) {
+            Map<Long, Occurrences> posting = postings.get(token);
+            posting.remove(itemId);
+            if (!posting.isEmpty()) {
+                continue;
+            }
+            postings.remove(token);
+            removeToken(dictionaryGrams, grams(token), token);
+            removeToken(shortGrams, shortGrams(token), token);
+        }
+    }
+
+    private static void removeToken(Map<String, Set<String>> gramIndex, Set<String> grams, String token) {
+        for (String gram : grams) {
+            Set<String> tokens = gramIndex.get(gram);
+            tokens.remove(token);
+            if (tokens.isEmpty()) {
+                gramIndex.remove(gram);
+            }
+        }
+    }
+
+    private static int maxEdits(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Расстояние Левенштейна; при превышении maxEdits возвращает maxEdits + 1.
+     */
+    private static int levenshtein(String first, String second, int maxEdits) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[second.length()], maxEdits + 1);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> terms(String text) {
+        return new ArrayList<>(new LinkedHashSet<>(tokens(normalize(text))));
+    }
+
+    private static List<String> tokens(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> grams(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Подстроки токена короче триграммы.
+     */
+    private static Set<String> shortGrams(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length < GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= token.length(); i++) {
+                grams.add(token.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    @Getter
+    private static class Occurrences {
+        private int name;
+        private int description;
+    }
+
+    @Value
+    private static class IndexedItem {
+        Long id;
+        String name;
+        String description;
+        Boolean available;
+        Long requestId;
+        int nameLength;
+        int descriptionLength;
+        Map<String, Occurrences> occurrences;
+
+        IndexedItem(Item item) {
+            id = item.getId();
+            name = item.getName();
+            description = item.getDescription();
+            available = Boolean.TRUE.equals(item.getAvailable());
+            requestId = item.getRequest() == null ? null : item.getRequest().getId();
+            List<String> nameTokens = tokens(normalize(name));
+            List<String> descriptionTokens = tokens(normalize(description));
+            nameLength = nameTokens.size();
+            descriptionLength = descriptionTokens.size();
+            occurrences = new HashMap<>();
+            nameTokens.forEach(token -> occurrences.computeIfAbsent(token, key -> new Occurrences()).name++);
+            descriptionTokens.forEach(token -> occurrences.computeIfAbsent(token, key -> new Occurrences()).description++);
+        }
+    }
+
+    @Value
+    private static class SearchPage {
+        static final SearchPage EMPTY = new SearchPage(List.of(), null, false);
+
+        List<ScoredItem> items;
+        ItemSearchStats stats;
+        boolean hasNext;
+
+        ItemSearchCursor nextCursor() {
+            ScoredItem last = items.get(items.size() - 1);
+            return ItemSearchCursor.after(last.getItem().getId(), last.getScore(), stats);
+        }
+    }
+
+    @Value
+    private static class ScoredItem {
+        IndexedItem item;
+        double score;
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(item.getId())
+                    .name(item.getName())
+                    .description(item.getDescription())
+                    .available(item.getAvailable())
+                    .requestId(item.getRequestId())
+                    .score(score)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.util.List;
+
+/**
+ * Страница поиска и курсор следующей страницы; next равен null, если страница последняя.
+ */
+@Value
+public class ItemSearchPage {
+    public static final ItemSearchPage EMPTY = new ItemSearchPage(List.of(), null);
+
+    List<ItemDto> items;
+    ItemSearchCursor next;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+/**
+ * Средние длины полей и idf слов запроса, по которым считается релевантность. Снимок
+ * передается в курсоре, поэтому оценки следующих страниц не зависят от изменений индекса.
+ */
+@Value
+class ItemSearchStats {
+    double averageNameLength;
+    double averageDescriptionLength;
+    double[] idf;
+
+    ItemSearchStats withIdf(double[] idf) {
+        return new ItemSearchStats(averageNameLength, averageDescriptionLength, idf);
+    }
+}
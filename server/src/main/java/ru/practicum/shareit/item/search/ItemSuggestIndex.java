@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс подсказок по названиям доступных вещей.
+ * Ключи - название целиком и его окончания, начинающиеся с каждого слова, поэтому
+ * префикс ищется диапазоном отсортированного словаря и находит вещь по началу любого слова.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSuggestIndex {
+    private static final Pattern WORD_START = Pattern.compile("(?<![\\p{L}\\p{N}])[\\p{L}\\p{N}]");
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, NavigableSet<Long>> keys = new TreeMap<>();
+    private final Map<Long, SuggestedItem> items = new HashMap<>();
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Работает метод: rebuild, построение индекса подсказок");
+        List<Item> allItems = itemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            keys.clear();
+            items.clear();
+            allItems.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс подсказок построен, вещей: {}", items.size());
+    }
+
+    /**
+     * Обновляет подсказки вещи после коммита текущей транзакции: откат создания или изменения индекс не меняет.
+     */
+    public void index(Item item) {
+        afterCommit(() -> {
+            remove(item.getId());
+            add(item);
+        });
+    }
+
+    /**
+     * Убирает вещи из подсказок после коммита текущей транзакции.
+     */
+    public void remove(Collection<Long> itemIds) {
+        afterCommit(() -> itemIds.forEach(this::remove));
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Не более size различных названий доступных вещей, у которых с prefix начинается одно из слов.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> names = new LinkedHashSet<>();
+            for (NavigableSet<Long> ids : keys.subMap(key, true, key + MAX_CHAR, false).values()) {
+                for (Long id : ids) {
+                    names.add(items.get(id).getName());
+                    if (names.size() == size) {
+                        return new ArrayList<>(names);
+                    }
+                }
+            }
+            return new ArrayList<>(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable()) || item.getName() == null) {
+            return;
+        }
+        SuggestedItem suggestedItem = new SuggestedItem(item.getName(), keys(item.getName()));
+        items.put(item.getId(), suggestedItem);
+        suggestedItem.getKeys().forEach(key -> keys.computeIfAbsent(key, k -> new TreeSet<>()).add(item.getId()));
+    }
+
+    private void remove(Long itemId) {
+        SuggestedItem suggestedItem = items.remove(itemId);
+        if (suggestedItem == null) {
+            return;
+        }
+        for (String key : suggestedItem.getKeys()) {
+            NavigableSet<Long> ids = keys.get(key);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> keys(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new HashSet<>();
+        Matcher matcher = WORD_START.matcher(normalized);
+        while (matcher.find()) {
+            keys.add(normalized.substring(matcher.start()));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Value
+    private static class SuggestedItem {
+        String name;
+        Set<String> keys;
+    }
+}
@@ -1,12 +1,21 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.ItemAvailabilityDto;
 import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
-    List<ItemDto> getAllItems(long userId);
+    /**
+     * Вещи владельца по id; без from и size - все вещи, иначе страница (по умолчанию from = 0, size = 10).
+     */
+    List<ItemDto> getAllItems(long userId, Integer from, Integer size);
+
+    void streamAllItems(long userId, Consumer<? super ItemDto> consumer);
 
     ItemDto getItemById(long userId, long itemId);
 
@@ -14,6 +23,18 @@ public interface ItemService {
 
     ItemDto updateItem(long userId, ItemDto itemDto, long itemId);
 
-    List<ItemDto> searchItems(long userId, String text);
+    ItemSearchPage searchItems(long userId, String text, Integer from, Integer size, String cursor);
+
+    void streamSearchItems(long userId, String text, Consumer<? super ItemDto> consumer);
+
+    List<String> suggestItems(long userId, String prefix, Integer size);
+
+    ItemAvailabilityDto getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Проверяет, что пользователь существует. Вызывается до потоковой выдачи, чтобы ошибка
+     * вернулась статусом ответа, а не оборвала уже начатое тело.
+     */
+    void checkUser(long userId);
 
 }
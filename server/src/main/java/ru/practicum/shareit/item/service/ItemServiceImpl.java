@@ -3,29 +3,48 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.OffsetPageRequest;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingSlot;
+import ru.practicum.shareit.booking.index.BookingTimeline;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.CommentMapper;
+import ru.practicum.shareit.comment.model.ItemCommentStats;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.comment.repository.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.ItemAvailabilityDto;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchCursor;
+import ru.practicum.shareit.item.search.ItemSearchPage;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.ItemRequestFeedCache;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.model.BookingMapper.toBookingDtoResponse;
-import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
 import static ru.practicum.shareit.item.model.ItemMapper.toItem;
 import static ru.practicum.shareit.item.model.ItemMapper.toItemDto;
 
@@ -33,22 +52,62 @@ import static ru.practicum.shareit.item.model.ItemMapper.toItemDto;
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
-    private final BookingRepository bookingRepository;
+    private static final int STREAM_CHUNK_SIZE = 100;
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private static final int EMBEDDED_COMMENTS = 10;
+
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
+    private final BookingTimeline bookingTimeline;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemWriteLocks itemWriteLocks;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestFeedCache itemRequestFeedCache;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final EntityManager entityManager;
+    private final Sort itemsSort = Sort.by(Sort.Direction.ASC, "id");
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemDto> getAllItems(long userId) {
-        log.info("Работает метод: getAllItems, на вход пуступил параметр userId = {}", userId);
+    public List<ItemDto> getAllItems(long userId, Integer from, Integer size) {
+        log.info("Работает метод: getAllItems, на вход пуступил параметр userId = {}, from = {}, size = {}",
+                userId, from, size);
         existUser(userId);
-        return itemRepository.findAll().stream()
-                .filter(item -> item.getOwner().getId() == userId)
-                .map(item -> getLastAndNextBooking(item, userId))
-                .sorted(Comparator.comparing(ItemDto::getId))
-                .collect(Collectors.toList());
+        if (from == null && size == null) {
+            return setComments(getLastAndNextBookings(itemRepository.findAllByOwnerId(userId, itemsSort), userId));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        Pageable pageable = OffsetPageRequest.of(from == null ? 0 : from, pageSize, itemsSort);
+        return setComments(getLastAndNextBookings(itemRepository.findAllByOwnerId(userId, pageable), userId));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllItems(long userId, Consumer<? super ItemDto> consumer) {
+        log.info("Работает метод: streamAllItems, на вход поступил параметр userId = {}", userId);
+        existUser(userId);
+        try (Stream<Item> items = itemRepository.streamAllByOwnerIdOrderById(userId)) {
+            List<Item> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE || !iterator.hasNext()) {
+                    setComments(getLastAndNextBookings(chunk, userId)).forEach(consumer);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Метод: streamAllItems завершил работу");
     }
 
     @Transactional(readOnly = true)
@@ -58,11 +117,7 @@ public class ItemServiceImpl implements ItemService {
         existUser(userId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Вещь id = " + itemId + " в коллекции не найдена"));
-        List<CommentDto> commentDtoList = commentRepository.findByItem(item).stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
-        ItemDto itemDto = getLastAndNextBooking(item, userId);
-        itemDto.setComments(commentDtoList);
+        ItemDto itemDto = setComments(getLastAndNextBookings(List.of(item), userId)).get(0);
         log.info("Метод: getItemById завершил работу");
         return itemDto;
     }
@@ -85,14 +140,28 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.save(item);
+        itemSearchEngine.index(item);
+        itemSearchCache.invalidate();
+        itemSuggestIndex.index(item);
+        ItemDto createdItemDto = toItemDto(item);
+        itemRequestFeedCache.putItem(createdItemDto);
         log.info("Метод: createItem завершил работу");
-        return toItemDto(item);
+        return createdItemDto;
     }
 
-    @Transactional
+    /**
+     * Изменение вещи идет под блокировкой ItemWriteLocks, как и бронирования: одновременные правки
+     * выполняются по очереди, а конфликт версий с другим узлом повторяется, а не отдается клиенту 409.
+     */
     @Override
     public ItemDto updateItem(long userId, ItemDto itemDto, long itemId) {
         log.info("Метод: updateItem, поступили параметры: userId = {}, item= {} и itemId = {}", userId, itemDto, itemId);
+        ItemDto updatedItemDto = itemWriteLocks.inTransaction(itemId, () -> update(userId, itemDto, itemId));
+        log.info("Метод: updateItem завершил работу");
+        return updatedItemDto;
+    }
+
+    private ItemDto update(long userId, ItemDto itemDto, long itemId) {
         existUser(userId);
         Item oldItem = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ObjectNotFoundException("Вещь с id = " + itemId + " не найдена"));
@@ -106,53 +175,139 @@ public class ItemServiceImpl implements ItemService {
         Optional.ofNullable(itemDto.getOwner()).ifPresent(oldItem::setOwner);
         Optional.ofNullable(itemDto.getRequestId())
                 .ifPresent(requestId -> oldItem.setRequest(itemRequestRepository.findById(requestId).get()));
+        itemSearchEngine.index(oldItem);
+        itemSearchCache.invalidate();
+        itemSuggestIndex.index(oldItem);
+        ItemDto updatedItemDto = toItemDto(oldItem);
+        itemRequestFeedCache.putItem(updatedItemDto);
         log.info("Вещь id = {} обновлена", itemId);
-        log.info("Метод: updateItem завершил работу");
-        return toItemDto(oldItem);
+        return updatedItemDto;
     }
 
-    @Transactional
     @Override
-    public List<ItemDto> searchItems(long userId, String text) {
-        log.info("Работате метод: searchItems, поступили параметры: userId = {} и text = {}", userId, text);
+    public ItemSearchPage searchItems(long userId, String text, Integer from, Integer size, String cursor) {
+        log.info("Работате метод: searchItems, поступили параметры: userId = {}, text = {}, from = {}, size = {}, " +
+                "cursor = {}", userId, text, from, size, cursor);
+        if (StringUtils.isBlank(text)) {
+            return ItemSearchPage.EMPTY;
+        }
+        ItemSearchCursor searchCursor = ItemSearchCursor.decode(cursor, text);
+        Pageable pageable = OffsetPageRequest.of(StringUtils.isBlank(cursor) ? from : 0, size);
+        return itemSearchCache.get(text, cursor, pageable.getOffset(), pageable.getPageSize(),
+                () -> itemSearchEngine.search(text, searchCursor, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamSearchItems(long userId, String text, Consumer<? super ItemDto> consumer) {
+        log.info("Работает метод: streamSearchItems, поступили параметры: userId = {}, text = {}", userId, text);
+        existUser(userId);
         if (StringUtils.isBlank(text)) {
+            return;
+        }
+        try (Stream<ItemDto> items = itemSearchEngine.stream(text)) {
+            items.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<String> suggestItems(long userId, String prefix, Integer size) {
+        log.info("Работает метод: suggestItems, поступили параметры: userId = {}, prefix = {}, size = {}",
+                userId, prefix, size);
+        if (StringUtils.isBlank(prefix)) {
             return new ArrayList<>();
         }
-        return itemRepository.findAll().stream()
-                .filter(item -> StringUtils.containsIgnoreCase(item.getDescription(), text))
-                .filter(Item::getAvailable)
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemAvailabilityDto getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        log.info("Работает метод: getAvailability, поступили параметры: userId = {}, itemId = {}, from = {}, to = {}",
+                userId, itemId, from, to);
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("Окончание периода должно быть позже начала");
+        }
+        if (from.plus(MAX_AVAILABILITY_WINDOW).isBefore(to)) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_AVAILABILITY_WINDOW.toDays() + " дней");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        List<ItemAvailabilityDto.Interval> busy = new ArrayList<>();
+        List<ItemAvailabilityDto.Interval> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingSlot slot : bookingIntervalIndex.busy(itemId, from, to)) {
+            LocalDateTime start = slot.getStart().isBefore(from) ? from : slot.getStart();
+            LocalDateTime end = slot.getEnd().isAfter(to) ? to : slot.getEnd();
+            if (freeFrom.isBefore(start)) {
+                free.add(new ItemAvailabilityDto.Interval(freeFrom, start));
+            }
+            busy.add(new ItemAvailabilityDto.Interval(start, end));
+            freeFrom = end;
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new ItemAvailabilityDto.Interval(freeFrom, to));
+        }
+        return new ItemAvailabilityDto(itemId, from, to, busy, free);
+    }
+
+    @Override
+    public void checkUser(long userId) {
+        existUser(userId);
     }
 
     private void existUser(long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id: " + userId + " не найден"));
+        if (!userExistenceCache.exists(userId)) {
+            throw new ObjectNotFoundException("Пользователь с id: " + userId + " не найден");
+        }
     }
 
-    private ItemDto getLastAndNextBooking(Item item, Long userId) {
-        log.info("Работает метод: getLastAndNextBooking на вход поступил item = {} и userId = {}", item, userId);
-        ItemDto itemDto = toItemDto(item);
+    private List<ItemDto> getLastAndNextBookings(List<Item> items, long userId) {
+        log.info("Работает метод: getLastAndNextBookings, вещей: {}, userId = {}", items.size(), userId);
         LocalDateTime currentLocalDateTime = LocalDateTime.now();
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            bookingRepository.findByItem(item).stream()
-                    .sorted(Comparator.comparing(Booking::getStart).reversed())
-                    .filter(booking -> booking.getStatus().equals(APPROVED))
-                    .filter(booking -> booking.getStart().isBefore(currentLocalDateTime))
-                    .findFirst()
-                    .ifPresent(booking -> itemDto.setLastBooking(toBookingDtoResponse(booking)));
-        }
-
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            bookingRepository.findByItem(item).stream()
-                    .sorted(Comparator.comparing(Booking::getStart))
-                    .filter(booking -> booking.getStatus().equals(APPROVED))
-                    .filter(booking -> booking.getStart().isAfter(currentLocalDateTime))
-                    .findFirst()
-                    .ifPresent(booking -> itemDto.setNextBooking(toBookingDtoResponse(booking)));
-        }
-        log.info("Метод: getLastAndNextBooking завершил работу");
-        return itemDto;
+        List<ItemDto> itemDtos = new ArrayList<>();
+        for (Item item : items) {
+            ItemDto itemDto = toItemDto(item);
+            if (item.getOwner().getId() == userId) {
+                bookingTimeline.last(item.getId(), currentLocalDateTime)
+                        .ifPresent(booking -> itemDto.setLastBooking(toBookingDtoResponse(booking)));
+                bookingTimeline.next(item.getId(), currentLocalDateTime)
+                        .ifPresent(booking -> itemDto.setNextBooking(toBookingDtoResponse(booking)));
+            }
+            itemDtos.add(itemDto);
+        }
+        log.info("Метод: getLastAndNextBookings завершил работу");
+        return itemDtos;
+    }
+
+    /**
+     * Встраивает в вещи последние EMBEDDED_COMMENTS комментариев в хронологическом порядке
+     * и агрегаты из item_comment_stats. Полная история доступна через GET /items/{itemId}/comments.
+     */
+    private List<ItemDto> setComments(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) {
+            return itemDtos;
+        }
+        Set<Long> itemIds = itemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet());
+        List<Long> commentIds = commentRepository.findLatestIdsByItemIdIn(itemIds, EMBEDDED_COMMENTS).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentDto>> commentsByItemId = commentIds.isEmpty() ? Map.of()
+                : commentRepository.findAllWithAuthorByIdIn(commentIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        Map<Long, ItemCommentStats> statsByItemId = itemCommentStatsRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemCommentStats::getItemId, Function.identity()));
+        itemDtos.forEach(itemDto -> {
+            itemDto.setComments(commentsByItemId.getOrDefault(itemDto.getId(), new ArrayList<>()));
+            ItemCommentStats stats = statsByItemId.get(itemDto.getId());
+            itemDto.setCommentCount(stats == null ? 0L : stats.getCommentCount());
+            itemDto.setLastCommentAt(stats == null ? null : stats.getLastCommentAt());
+        });
+        return itemDtos;
     }
 
 }
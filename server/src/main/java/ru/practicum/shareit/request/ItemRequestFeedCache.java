@@ -0,0 +1,254 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.model.ItemRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Общий для всех пользователей кэш самых новых maxSize запросов с ответными вещами - источник
+ * первых страниц ленты /requests/all. Исключение собственных запросов пользователя делается
+ * фильтром по requesterId при чтении. Кэш дополняется после коммита createItemRequest и
+ * createItem/updateItem; если страницу нельзя собрать из кэша целиком, сервис идет в базу.
+ */
+@Slf4j
+@Component
+public class ItemRequestFeedCache {
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing((Entry entry) -> entry.created)
+            .thenComparing(entry -> entry.id)
+            .reversed();
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final NavigableSet<Entry> entries = new TreeSet<>(NEWEST_FIRST);
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    private final Map<Long, Long> requestIdByItemId = new HashMap<>();
+    private boolean ready;
+    private boolean complete;
+    private long modifications;
+
+    @Autowired
+    public ItemRequestFeedCache(ItemRequestRepository itemRequestRepository,
+                                ItemRepository itemRepository,
+                                @Value("${shareit.request.feed.cache-size:500}") int maxSize,
+                                MeterRegistry meterRegistry) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("shareit.request.feed.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.request.feed.cache.requests", "result", "miss");
+        meterRegistry.gauge("shareit.request.feed.cache.size", this, ItemRequestFeedCache::size);
+    }
+
+    /**
+     * Загружает maxSize самых новых запросов и их ответы. Если во время загрузки кэш
+     * менялся, загрузка повторяется, чтобы не потерять зафиксированные за это время изменения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        log.info("Работает метод: reload, загрузка ленты запросов");
+        while (true) {
+            long loadModifications;
+            synchronized (this) {
+                loadModifications = modifications;
+            }
+            List<ItemRequestView> requests = itemRequestRepository.findFeedViews(PageRequest.of(0, maxSize));
+            List<ItemDto> items = requests.isEmpty() ? List.of() : itemRepository.findViewsByRequestIdIn(
+                            requests.stream().map(ItemRequestView::getId).collect(Collectors.toList()))
+                    .stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+            synchronized (this) {
+                if (loadModifications != modifications) {
+                    continue;
+                }
+                entries.clear();
+                entriesById.clear();
+                requestIdByItemId.clear();
+                requests.forEach(request -> add(new Entry(request.getId(), request.getRequesterId(),
+                        request.getDescription(), request.getCreated())));
+                items.forEach(this::attach);
+                complete = requests.size() < maxSize;
+                ready = true;
+                log.info("Лента запросов загружена, запросов: {}", requests.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Страница ленты без запросов пользователя userId, начиная после курсора и пропуская offset строк.
+     * Пустой Optional означает, что кэш не покрывает страницу целиком или не знает, есть ли следующая.
+     */
+    public Optional<Slice<ItemRequestResponseDto>> page(Long userId, KeysetCursor after, long offset, int size) {
+        List<ItemRequestResponseDto> page = new ArrayList<>(size);
+        synchronized (this) {
+            if (ready) {
+                Iterator<Entry> iterator = after.isFirst() ? entries.iterator()
+                        : entries.tailSet(new Entry(after.getAfterId(), null, null, after.getAfterTime()), false)
+                        .iterator();
+                long skipped = 0;
+                while (page.size() < size && iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (Objects.equals(entry.requesterId, userId)) {
+                        continue;
+                    }
+                    if (skipped < offset) {
+                        skipped++;
+                        continue;
+                    }
+                    page.add(entry.toDto());
+                }
+                boolean hasNext = false;
+                while (!hasNext && iterator.hasNext()) {
+                    hasNext = !Objects.equals(iterator.next().requesterId, userId);
+                }
+                if (hasNext || complete) {
+                    hits.increment();
+                    return Optional.of(new SliceImpl<>(page, Pageable.unpaged(), hasNext));
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void addRequest(ItemRequestResponseDto request, Long requesterId) {
+        Entry entry = new Entry(request.getId(), requesterId, request.getDescription(), request.getCreated());
+        afterCommit(() -> {
+            add(entry);
+            while (entries.size() > maxSize) {
+                Entry oldest = entries.pollLast();
+                entriesById.remove(oldest.id);
+                oldest.items.forEach(item -> requestIdByItemId.remove(item.getId()));
+                complete = false;
+            }
+        });
+    }
+
+    /**
+     * Переносит вещь в ответы ее текущего запроса: вызывается после создания и изменения вещи.
+     */
+    public void putItem(ItemDto item) {
+        afterCommit(() -> {
+            Long previousRequestId = requestIdByItemId.remove(item.getId());
+            Entry previous = previousRequestId == null ? null : entriesById.get(previousRequestId);
+            if (previous != null) {
+                previous.items.removeIf(answer -> Objects.equals(answer.getId(), item.getId()));
+            }
+            attach(item);
+        });
+    }
+
+    /**
+     * Перезагружает кэш после коммита: удаление пользователя каскадно удаляет его вещи.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                modifications++;
+                change.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void add(Entry entry) {
+        Entry previous = entriesById.put(entry.id, entry);
+        if (previous != null) {
+            entries.remove(previous);
+            entry.items.addAll(previous.items);
+        }
+        entries.add(entry);
+    }
+
+    private void attach(ItemDto item) {
+        Entry entry = item.getRequestId() == null ? null : entriesById.get(item.getRequestId());
+        if (entry == null) {
+            return;
+        }
+        entry.items.add(ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .build());
+        entry.items.sort(Comparator.comparing(ItemDto::getId));
+        requestIdByItemId.put(item.getId(), entry.id);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final Long id;
+        private final Long requesterId;
+        private final String description;
+        private final LocalDateTime created;
+        private final List<ItemDto> items = new ArrayList<>();
+
+        private Entry(Long id, Long requesterId, String description, LocalDateTime created) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.description = description;
+            this.created = created;
+        }
+
+        private ItemRequestResponseDto toDto() {
+            return ItemRequestResponseDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(List.copyOf(items))
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
@@ -10,7 +11,9 @@ public interface ItemRequestService {
 
     ItemRequestResponseDto createItemRequest(Long userId, ItemRequestDto itemRequestDto);
 
-    List<ItemRequestResponseDto> getAllItemRequest(Long userId, Integer from, Integer size);
+    Slice<ItemRequestResponseDto> getAllItemRequest(Long userId, Integer from, Integer size);
+
+    Slice<ItemRequestResponseDto> getAllItemRequestAfter(Long userId, String cursor, Integer size);
 
     List<ItemRequestResponseDto> getAllByRequester(Long userId, Integer from, Integer size);
 }
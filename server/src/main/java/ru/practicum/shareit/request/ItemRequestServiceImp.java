@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.model.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -14,13 +16,16 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.subscription.service.SubscriptionService;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -28,6 +33,12 @@ import java.util.stream.Collectors;
 import static ru.practicum.shareit.request.model.ItemRequestMapper.toItemRequest;
 import static ru.practicum.shareit.request.model.ItemRequestMapper.toItemRequestResponseDto;
 
+/**
+ * Запросы читаются проекцией без requester, ответные вещи - одной проекцией без owner и request,
+ * поэтому любая страница ленты стоит двух запросов. Порядок ленты - (created desc, id desc).
+ * Страницы /requests/all, которые целиком помещаются в ItemRequestFeedCache, отдаются из памяти.
+ * Новый запрос после коммита асинхронно рассылается подписчикам на ключевые слова.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -35,24 +46,18 @@ public class ItemRequestServiceImp implements ItemRequestService {
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
-    private final Sort requestsSort = Sort.by(Sort.Direction.DESC, "created");
+    private final UserExistenceCache userExistenceCache;
+    private final ItemRequestFeedCache itemRequestFeedCache;
+    private final SubscriptionService subscriptionService;
 
     @Transactional(readOnly = true)
     @Override
     public ItemRequestResponseDto getByIdItemRequest(Long userId, Long requestId) {
         log.info("Работает: ItemRequestServiceImp.getByIdItemRequest");
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id = " + userId + "  не найден"));
-        ItemRequestResponseDto itemRequestResponseDto = toItemRequestResponseDto(itemRequestRepository.findById(requestId)
-                .orElseThrow(() -> new ObjectNotFoundException("Запрос с id = " + requestId + " не найден")));
-
-        List<ItemDto> itemDtoList = itemRepository.findAllByRequestId(requestId)
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .sorted(Comparator.comparing(ItemDto::getId))
-                .collect(Collectors.toList());
-        itemRequestResponseDto.setItems(itemDtoList);
-        return itemRequestResponseDto;
+        existUser(userId);
+        ItemRequestView itemRequest = itemRequestRepository.findViewById(requestId)
+                .orElseThrow(() -> new ObjectNotFoundException("Запрос с id = " + requestId + " не найден"));
+        return setItems(List.of(itemRequest)).get(0);
     }
 
     @Transactional
@@ -64,65 +69,69 @@ public class ItemRequestServiceImp implements ItemRequestService {
         ItemRequest itemRequest = toItemRequest(itemRequestDto);
         itemRequest.setRequester(requester);
         ItemRequestResponseDto itemRequestResponseDto = toItemRequestResponseDto(itemRequestRepository.save(itemRequest));
+        itemRequestFeedCache.addRequest(itemRequestResponseDto, userId);
+        subscriptionService.notifyItemRequestCreated(itemRequestResponseDto, userId);
         log.info("Закончил работу: ItemRequestServiceImp.createItemRequest");
         return itemRequestResponseDto;
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public List<ItemRequestResponseDto> getAllItemRequest(Long userId, Integer from, Integer size) {
+    public Slice<ItemRequestResponseDto> getAllItemRequest(Long userId, Integer from, Integer size) {
         log.info("Работает: ItemRequestServiceImp.getAllItemRequest");
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id = " + userId + "  не найден"));
-
-        Pageable pageable = PageRequest.of(from / size, size, requestsSort);
-
-        List<ItemRequestResponseDto> itemRequestResponseDtos = itemRequestRepository
-                .findAllByRequesterIdNot(userId, pageable).stream()
-                .map(ItemRequestMapper::toItemRequestResponseDto)
-                .sorted(Comparator.comparing(ItemRequestResponseDto::getCreated))
-                .collect(Collectors.toList());
+        existUser(userId);
+        Pageable pageable = PageRequest.of(from / size, size);
+        return itemRequestFeedCache.page(userId, KeysetCursor.FIRST, pageable.getOffset(), size)
+                .orElseGet(() -> setItems(itemRequestRepository.findViewsByRequesterIdNot(userId, pageable)));
+    }
 
-        return getItemsFoRequestResponseDto(itemRequestResponseDtos);
+    @Override
+    public Slice<ItemRequestResponseDto> getAllItemRequestAfter(Long userId, String cursor, Integer size) {
+        log.info("Работает: ItemRequestServiceImp.getAllItemRequestAfter, cursor: {}", cursor);
+        existUser(userId);
+        KeysetCursor after = ItemRequestCursor.decode(cursor, userId);
+        Pageable pageable = PageRequest.of(0, size);
+        return itemRequestFeedCache.page(userId, after, 0, size)
+                .orElseGet(() -> setItems(after.isFirst()
+                        ? itemRequestRepository.findViewsByRequesterIdNot(userId, pageable)
+                        : itemRequestRepository.findViewsByRequesterIdNotAfter(userId, after.getAfterTime(),
+                        after.getAfterId(), pageable)));
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestResponseDto> getAllByRequester(Long userId, Integer from, Integer size) {
         log.info("Работает: ItemRequestServiceImp.getAllByRequester");
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь с id = " + userId + "  не найден"));
-
-        Pageable pageable = PageRequest.of(from / size, size, requestsSort);
+        existUser(userId);
+        Pageable pageable = PageRequest.of(from / size, size);
+        return setItems(itemRequestRepository.findViewsByRequesterId(userId, pageable));
+    }
 
-        List<ItemRequestResponseDto> itemRequestResponseDtos = itemRequestRepository
-                .findAllByRequesterId(userId, pageable).stream()
-                .map(ItemRequestMapper::toItemRequestResponseDto)
-                .collect(Collectors.toList());
+    private void existUser(Long userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new ObjectNotFoundException("Пользователь с id = " + userId + "  не найден");
+        }
+    }
 
-        return getItemsFoRequestResponseDto(itemRequestResponseDtos);
+    private Slice<ItemRequestResponseDto> setItems(Slice<ItemRequestView> itemRequests) {
+        return new SliceImpl<>(setItems(itemRequests.getContent()), itemRequests.getPageable(), itemRequests.hasNext());
     }
 
-    private List<ItemRequestResponseDto> getItemsFoRequestResponseDto(List<ItemRequestResponseDto> itemRequestResponseDtos) {
-        Map<Long, List<ItemDto>> itemsMap = itemRepository.findAllByRequestIdIn(
-                        itemRequestResponseDtos.stream()
-                                .map(ItemRequestResponseDto::getId)
-                                .collect(Collectors.toList())
-                )
+    private List<ItemRequestResponseDto> setItems(List<ItemRequestView> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findViewsByRequestIdIn(
+                        itemRequests.stream()
+                                .map(ItemRequestView::getId)
+                                .collect(Collectors.toList()))
                 .stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.groupingBy(ItemDto::getRequestId));
 
-        return itemRequestResponseDtos.stream().peek(itemRequestResponseDto -> {
-            List<ItemDto> itemDtos = itemsMap.getOrDefault(itemRequestResponseDto.getId(), Collections.emptyList());
-
-            itemRequestResponseDto.setItems(itemDtos);
-
-        }).collect(Collectors.toList());
+        return itemRequests.stream()
+                .map(ItemRequestMapper::toItemRequestResponseDto)
+                .peek(itemRequest -> itemRequest.setItems(
+                        itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
-
-
 }
-
-
-
@@ -2,11 +2,15 @@ package ru.practicum.shareit.request.conroller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.repository.ItemRequestCursor;
 
 import java.util.List;
 
@@ -21,6 +25,7 @@ import java.util.List;
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
     private static final String SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     @PostMapping
     public ItemRequestResponseDto createItemRequest(@RequestHeader(SHARER_USER_ID) Long userId,
@@ -36,11 +41,17 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestResponseDto> getAllItemRequest(@RequestHeader(SHARER_USER_ID) Long userId,
-                                                          @RequestParam(defaultValue = "0") Integer from,
-                                                          @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<ItemRequestResponseDto>> getAllItemRequest(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                                          @RequestParam(required = false) String cursor) {
         log.info("Работает: ItemRequestController.getAllItemRequest");
-        return itemRequestService.getAllItemRequest(userId, from, size);
+        Slice<ItemRequestResponseDto> itemRequests = StringUtils.isBlank(cursor)
+                ? itemRequestService.getAllItemRequest(userId, from, size)
+                : itemRequestService.getAllItemRequestAfter(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        ItemRequestCursor.next(itemRequests, userId).ifPresent(next -> response.header(NEXT_CURSOR, next));
+        return response.body(itemRequests.getContent());
     }
 
     @GetMapping
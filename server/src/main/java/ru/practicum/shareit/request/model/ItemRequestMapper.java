@@ -14,6 +14,15 @@ public class ItemRequestMapper {
                 .build();
     }
 
+    public static ItemRequestResponseDto toItemRequestResponseDto(@NonNull ItemRequestView itemRequestView) {
+        return ItemRequestResponseDto
+                .builder()
+                .id(itemRequestView.getId())
+                .description(itemRequestView.getDescription())
+                .created(itemRequestView.getCreated())
+                .build();
+    }
+
     public static ItemRequest toItemRequest(@NonNull ItemRequestDto itemRequestDto) {
         return ItemRequest
                 .builder()
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.model;
+
+import java.time.LocalDateTime;
+
+public interface ItemRequestView {
+
+    Long getId();
+
+    Long getRequesterId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+}
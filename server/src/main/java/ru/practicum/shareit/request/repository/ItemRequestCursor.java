@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.repository;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+
+import java.util.Optional;
+
+/**
+ * Курсор ленты чужих запросов в порядке (created desc, id desc), привязанный к читающему ее пользователю.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemRequestCursor {
+
+    public static KeysetCursor decode(String cursor, long userId) {
+        return KeysetCursor.decode(cursor, scope(userId));
+    }
+
+    public static Optional<String> next(Slice<ItemRequestResponseDto> page, long userId) {
+        return KeysetCursor.next(page, scope(userId), ItemRequestResponseDto::getId, ItemRequestResponseDto::getCreated);
+    }
+
+    private static String scope(long userId) {
+        return "requests:" + userId;
+    }
+}
@@ -1,13 +1,37 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    Page<ItemRequest> findAllByRequesterId(Long userId, Pageable pageable);
+    String SELECT_VIEW = "select r.id as id, r.requester.id as requesterId, r.description as description, " +
+            "r.created as created from ItemRequest r ";
+    String FEED_ORDER = " order by r.created desc, r.id desc";
+
+    @Query(SELECT_VIEW + "where r.id = :id")
+    Optional<ItemRequestView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_VIEW + FEED_ORDER)
+    List<ItemRequestView> findFeedViews(Pageable pageable);
+
+    @Query(SELECT_VIEW + "where r.requester.id = :userId" + FEED_ORDER)
+    List<ItemRequestView> findViewsByRequesterId(@Param("userId") Long userId, Pageable pageable);
 
-    Page<ItemRequest> findAllByRequesterIdNot(Long userId, Pageable pageable);
+    @Query(SELECT_VIEW + "where r.requester.id <> :userId" + FEED_ORDER)
+    Slice<ItemRequestView> findViewsByRequesterIdNot(@Param("userId") Long userId, Pageable pageable);
 
+    @Query(SELECT_VIEW + "where r.requester.id <> :userId " +
+            "and (r.created < :created or (r.created = :created and r.id < :id))" + FEED_ORDER)
+    Slice<ItemRequestView> findViewsByRequesterIdNotAfter(@Param("userId") Long userId,
+                                                          @Param("created") LocalDateTime created,
+                                                          @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.subscription.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+import ru.practicum.shareit.subscription.service.SubscriptionService;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/subscriptions")
+@RequiredArgsConstructor
+@Validated
+public class SubscriptionController {
+    private final SubscriptionService subscriptionService;
+    private static final String SHARER_USER_ID = "X-Sharer-User-Id";
+
+    @PostMapping
+    public SubscriptionDto createSubscription(@RequestHeader(SHARER_USER_ID) Long userId,
+                                              @RequestBody SubscriptionDto subscriptionDto) {
+        log.info("Работает: SubscriptionController.createSubscription");
+        return subscriptionService.createSubscription(userId, subscriptionDto);
+    }
+
+    @GetMapping
+    public List<SubscriptionDto> getSubscriptions(@RequestHeader(SHARER_USER_ID) Long userId) {
+        log.info("Работает: SubscriptionController.getSubscriptions");
+        return subscriptionService.getSubscriptions(userId);
+    }
+
+    @DeleteMapping("/{subscriptionId}")
+    public void deleteSubscription(@RequestHeader(SHARER_USER_ID) Long userId, @PathVariable Long subscriptionId) {
+        log.info("Работает: SubscriptionController.deleteSubscription");
+        subscriptionService.deleteSubscription(userId, subscriptionId);
+    }
+
+    @GetMapping("/inbox")
+    public List<SubscriptionMatchDto> getInbox(@RequestHeader(SHARER_USER_ID) Long userId,
+                                               @RequestParam(defaultValue = "0") Integer from,
+                                               @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Работает: SubscriptionController.getInbox");
+        return subscriptionService.getInbox(userId, from, size);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.subscription.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@ToString
+public class SubscriptionDto {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("keyword")
+    private String keyword;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.subscription.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@ToString
+public class SubscriptionMatchDto {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("requestId")
+    private Long requestId;
+
+    @JsonProperty("description")
+    private String description;
+
+    @JsonProperty("keywords")
+    private List<String> keywords;
+
+    @JsonProperty("created")
+    private LocalDateTime created;
+}
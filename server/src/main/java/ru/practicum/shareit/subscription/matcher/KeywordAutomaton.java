@@ -0,0 +1,129 @@
+package ru.practicum.shareit.subscription.matcher;
+
+import java.util.*;
+
+/**
+ * Неизменяемый автомат Ахо-Корасик по набору ключевых слов. Переходы узла хранятся
+ * отсортированными массивами символов, поиск перехода - бинарный. Один проход по тексту
+ * находит вхождения всех слов за O(длина текста + число вхождений).
+ */
+final class KeywordAutomaton {
+    static final KeywordAutomaton EMPTY = build(List.of());
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final String[] keywords;
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[] keywordAt;
+    private final int[] outputLink;
+
+    private KeywordAutomaton(String[] keywords, char[][] labels, int[][] targets, int[] fail,
+                             int[] keywordAt, int[] outputLink) {
+        this.keywords = keywords;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.keywordAt = keywordAt;
+        this.outputLink = outputLink;
+    }
+
+    static KeywordAutomaton build(Collection<String> keywords) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        children.add(new TreeMap<>());
+        terminal.add(NONE);
+        String[] words = keywords.stream().filter(word -> !word.isEmpty()).distinct().toArray(String[]::new);
+        for (int index = 0; index < words.length; index++) {
+            int node = ROOT;
+            for (char c : words[index].toCharArray()) {
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new TreeMap<>());
+                    terminal.add(NONE);
+                }
+                node = next;
+            }
+            terminal.set(node, index);
+        }
+
+        int size = children.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        int[] keywordAt = new int[size];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = children.get(node);
+            labels[node] = new char[edges.size()];
+            targets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[node][i] = edge.getKey();
+                targets[node][i++] = edge.getValue();
+            }
+            keywordAt[node] = terminal.get(node);
+        }
+
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        outputLink[ROOT] = NONE;
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        KeywordAutomaton automaton = new KeywordAutomaton(words, labels, targets, fail, keywordAt, outputLink);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < labels[node].length; i++) {
+                int child = targets[node][i];
+                int link = ROOT;
+                if (node != ROOT) {
+                    int state = fail[node];
+                    while (state != ROOT && automaton.next(state, labels[node][i]) == NONE) {
+                        state = fail[state];
+                    }
+                    int next = automaton.next(state, labels[node][i]);
+                    link = next == NONE ? ROOT : next;
+                }
+                fail[child] = link;
+                outputLink[child] = keywordAt[link] != NONE ? link : outputLink[link];
+                queue.add(child);
+            }
+        }
+        return automaton;
+    }
+
+    int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Сообщает каждое вхождение ключевого слова в text: слово и индекс его первого символа.
+     */
+    void match(String text, Match match) {
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = next(node, c);
+            while (next == NONE && node != ROOT) {
+                node = fail[node];
+                next = next(node, c);
+            }
+            node = next == NONE ? ROOT : next;
+            for (int out = keywordAt[node] != NONE ? node : outputLink[node]; out != NONE; out = outputLink[out]) {
+                String keyword = keywords[keywordAt[out]];
+                match.found(keyword, i - keyword.length() + 1);
+            }
+        }
+    }
+
+    private int next(int node, char c) {
+        int i = Arrays.binarySearch(labels[node], c);
+        return i < 0 ? NONE : targets[node][i];
+    }
+
+    interface Match {
+        void found(String keyword, int start);
+    }
+}
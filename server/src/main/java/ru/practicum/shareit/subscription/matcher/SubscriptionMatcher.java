@@ -0,0 +1,216 @@
+package ru.practicum.shareit.subscription.matcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.subscription.model.SubscriptionKeyword;
+import ru.practicum.shareit.subscription.repository.SubscriptionRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сопоставляет описание запроса со всеми ключевыми словами подписок за один проход автомата
+ * Ахо-Корасик. Слово совпадает, если его вхождение начинается с начала слова текста, поэтому
+ * "дрел" находит и "дрель", и "дрели". Автомат неизменяем и пересобирается в фоне, несколько
+ * изменений подписок подряд дают одну пересборку. До ее окончания новые слова из pending
+ * проверяются отдельно, а слова без подписчиков отбрасываются по subscribers, поэтому изменение
+ * подписки видно сразу после коммита.
+ */
+@Slf4j
+@Component
+public class SubscriptionMatcher {
+    private final SubscriptionRepository subscriptionRepository;
+    private final Timer matchTimer;
+    private final Map<String, Set<Long>> subscribers = new HashMap<>();
+    private final Map<Long, Set<String>> keywordsByUser = new HashMap<>();
+    private final Set<String> pending = new HashSet<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("subscription-matcher-"));
+    private volatile KeywordAutomaton automaton = KeywordAutomaton.EMPTY;
+    private long modifications;
+
+    @Autowired
+    public SubscriptionMatcher(SubscriptionRepository subscriptionRepository, MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.matchTimer = meterRegistry.timer("shareit.subscription.match");
+        meterRegistry.gauge("shareit.subscription.keywords", this, SubscriptionMatcher::size);
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Загружает все подписки и строит автомат. Если во время загрузки подписки менялись, загрузка повторяется.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        log.info("Работает метод: warmUp, загрузка подписок на ключевые слова");
+        while (true) {
+            long loadModifications;
+            synchronized (this) {
+                loadModifications = modifications;
+            }
+            List<SubscriptionKeyword> keywords = subscriptionRepository.findAllKeywords();
+            synchronized (this) {
+                if (loadModifications != modifications) {
+                    continue;
+                }
+                subscribers.clear();
+                keywordsByUser.clear();
+                keywords.forEach(keyword -> put(keyword.getUserId(), keyword.getKeyword()));
+                pending.addAll(subscribers.keySet());
+                log.info("Подписки загружены: {}, ключевых слов: {}", keywords.size(), subscribers.size());
+            }
+            rebuild();
+            return;
+        }
+    }
+
+    /**
+     * Подписчики, кроме requesterId, чьи ключевые слова встретились в описании, и совпавшие слова каждого.
+     */
+    public Map<Long, List<String>> match(String description, Long requesterId) {
+        return matchTimer.record(() -> {
+            String text = normalize(description);
+            Set<String> found = new LinkedHashSet<>();
+            automaton.match(text, (keyword, start) -> {
+                if (isWordStart(text, start)) {
+                    found.add(keyword);
+                }
+            });
+            Map<Long, List<String>> matches = new HashMap<>();
+            synchronized (this) {
+                pending.stream()
+                        .filter(keyword -> !found.contains(keyword) && contains(text, keyword))
+                        .forEach(found::add);
+                for (String keyword : found) {
+                    subscribers.getOrDefault(keyword, Set.of()).stream()
+                            .filter(userId -> !userId.equals(requesterId))
+                            .forEach(userId -> matches.computeIfAbsent(userId, id -> new ArrayList<>()).add(keyword));
+                }
+            }
+            return matches;
+        });
+    }
+
+    public void subscribe(Long userId, String keyword) {
+        afterCommit(() -> {
+            if (put(userId, keyword)) {
+                pending.add(keyword);
+                scheduleRebuild();
+            }
+        });
+    }
+
+    public void unsubscribe(Long userId, String keyword) {
+        afterCommit(() -> remove(userId, keyword));
+    }
+
+    /**
+     * Убирает подписки удаленного пользователя: в базе они удаляются каскадно.
+     */
+    public void removeUser(Long userId) {
+        afterCommit(() -> new ArrayList<>(keywordsByUser.getOrDefault(userId, Set.of()))
+                .forEach(keyword -> remove(userId, keyword)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private boolean put(Long userId, String keyword) {
+        keywordsByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(keyword);
+        Set<Long> users = subscribers.computeIfAbsent(keyword, word -> new HashSet<>());
+        users.add(userId);
+        return users.size() == 1;
+    }
+
+    private void remove(Long userId, String keyword) {
+        Set<String> keywords = keywordsByUser.get(userId);
+        if (keywords != null && keywords.remove(keyword) && keywords.isEmpty()) {
+            keywordsByUser.remove(userId);
+        }
+        Set<Long> users = subscribers.get(keyword);
+        if (users != null && users.remove(userId) && users.isEmpty()) {
+            subscribers.remove(keyword);
+            pending.remove(keyword);
+            scheduleRebuild();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Строит автомат по снимку ключевых слов. Из pending убираются только слова снимка,
+     * добавленные во время сборки остаются там до следующей пересборки.
+     */
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        List<String> keywords;
+        Set<String> included;
+        synchronized (this) {
+            keywords = new ArrayList<>(subscribers.keySet());
+            included = new HashSet<>(pending);
+        }
+        KeywordAutomaton next = KeywordAutomaton.build(keywords);
+        synchronized (this) {
+            automaton = next;
+            pending.removeAll(included);
+        }
+        log.debug("Автомат подписок пересобран, ключевых слов: {}", next.size());
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                modifications++;
+                change.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static boolean contains(String text, String keyword) {
+        for (int start = text.indexOf(keyword); start >= 0; start = text.indexOf(keyword, start + 1)) {
+            if (isWordStart(text, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int start) {
+        return start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+    }
+
+    private synchronized int size() {
+        return subscribers.size();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.subscription.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Подписка владельца на ключевое слово: новые запросы вещей, в описании которых
+ * встречается слово, попадают во входящие пользователя.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@Table(name = "subscriptions")
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Subscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 50, nullable = false)
+    private String keyword;
+}
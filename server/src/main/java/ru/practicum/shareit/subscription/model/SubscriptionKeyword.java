@@ -0,0 +1,10 @@
+package ru.practicum.shareit.subscription.model;
+
+/**
+ * Пара (пользователь, ключевое слово) для загрузки SubscriptionMatcher без лишних колонок.
+ */
+public interface SubscriptionKeyword {
+    Long getUserId();
+
+    String getKeyword();
+}
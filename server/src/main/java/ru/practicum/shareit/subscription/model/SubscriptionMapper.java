@@ -0,0 +1,27 @@
+package ru.practicum.shareit.subscription.model;
+
+import lombok.NonNull;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+
+import java.util.List;
+
+public class SubscriptionMapper {
+    public static SubscriptionDto toSubscriptionDto(@NonNull Subscription subscription) {
+        return SubscriptionDto.builder()
+                .id(subscription.getId())
+                .keyword(subscription.getKeyword())
+                .build();
+    }
+
+    public static SubscriptionMatchDto toSubscriptionMatchDto(@NonNull SubscriptionMatchView match,
+                                                              @NonNull List<String> keywords) {
+        return SubscriptionMatchDto.builder()
+                .id(match.getId())
+                .requestId(match.getRequestId())
+                .description(match.getDescription())
+                .keywords(keywords)
+                .created(match.getCreated())
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.subscription.model;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Запись во входящих пользователя: запрос вещи и совпавшие ключевые слова.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@Table(name = "subscription_matches")
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SubscriptionMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @ElementCollection
+    @CollectionTable(name = "subscription_match_keywords", joinColumns = @JoinColumn(name = "match_id"))
+    @Column(name = "keyword", length = 50, nullable = false)
+    private List<String> keywords;
+
+    @CreationTimestamp
+    @Column(name = "created", nullable = false, columnDefinition = "timestamp")
+    private LocalDateTime created;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.subscription.model;
+
+/**
+ * Совпавшее ключевое слово записи входящих.
+ */
+public interface SubscriptionMatchKeyword {
+    Long getMatchId();
+
+    String getKeyword();
+}
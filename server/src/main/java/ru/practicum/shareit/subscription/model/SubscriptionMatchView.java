@@ -0,0 +1,16 @@
+package ru.practicum.shareit.subscription.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка входящих: совпадение вместе с описанием запроса, одним запросом с join на requests.
+ */
+public interface SubscriptionMatchView {
+    Long getId();
+
+    Long getRequestId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.subscription.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.subscription.model.SubscriptionMatch;
+import ru.practicum.shareit.subscription.model.SubscriptionMatchKeyword;
+import ru.practicum.shareit.subscription.model.SubscriptionMatchView;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SubscriptionMatchRepository extends JpaRepository<SubscriptionMatch, Long> {
+    @Query("select m.id as id, m.requestId as requestId, r.description as description, m.created as created "
+            + "from SubscriptionMatch m, ItemRequest r "
+            + "where r.id = m.requestId and m.userId = :userId "
+            + "order by m.id desc")
+    List<SubscriptionMatchView> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select m.id as matchId, k as keyword from SubscriptionMatch m join m.keywords k "
+            + "where m.id in :ids "
+            + "order by k")
+    List<SubscriptionMatchKeyword> findKeywordsByIdIn(@Param("ids") Collection<Long> ids);
+}
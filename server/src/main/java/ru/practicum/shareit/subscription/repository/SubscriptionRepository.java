@@ -0,0 +1,20 @@
+package ru.practicum.shareit.subscription.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.subscription.model.Subscription;
+import ru.practicum.shareit.subscription.model.SubscriptionKeyword;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+    Optional<Subscription> findByUserIdAndKeyword(Long userId, String keyword);
+
+    List<Subscription> findAllByUserIdOrderByIdAsc(Long userId);
+
+    long countByUserId(Long userId);
+
+    @Query("select s.userId as userId, s.keyword as keyword from Subscription s")
+    List<SubscriptionKeyword> findAllKeywords();
+}
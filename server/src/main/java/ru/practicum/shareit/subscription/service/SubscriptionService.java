@@ -0,0 +1,19 @@
+package ru.practicum.shareit.subscription.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+
+import java.util.List;
+
+public interface SubscriptionService {
+    SubscriptionDto createSubscription(Long userId, SubscriptionDto subscriptionDto);
+
+    List<SubscriptionDto> getSubscriptions(Long userId);
+
+    void deleteSubscription(Long userId, Long subscriptionId);
+
+    List<SubscriptionMatchDto> getInbox(Long userId, Integer from, Integer size);
+
+    void notifyItemRequestCreated(ItemRequestResponseDto itemRequest, Long requesterId);
+}
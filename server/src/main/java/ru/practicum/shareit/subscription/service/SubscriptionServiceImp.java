@@ -0,0 +1,202 @@
+package ru.practicum.shareit.subscription.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+import ru.practicum.shareit.subscription.matcher.SubscriptionMatcher;
+import ru.practicum.shareit.subscription.model.Subscription;
+import ru.practicum.shareit.subscription.model.SubscriptionMapper;
+import ru.practicum.shareit.subscription.model.SubscriptionMatch;
+import ru.practicum.shareit.subscription.model.SubscriptionMatchKeyword;
+import ru.practicum.shareit.subscription.model.SubscriptionMatchView;
+import ru.practicum.shareit.subscription.repository.SubscriptionMatchRepository;
+import ru.practicum.shareit.subscription.repository.SubscriptionRepository;
+import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.subscription.model.SubscriptionMapper.toSubscriptionDto;
+import static ru.practicum.shareit.subscription.model.SubscriptionMapper.toSubscriptionMatchDto;
+
+/**
+ * Подписки на ключевые слова и входящие. Новый запрос вещи сопоставляется с подписками
+ * после коммита в отдельном пуле потоков, поэтому createItemRequest не ждет ни сопоставления,
+ * ни записи во входящие. Доставка best-effort: очередь пула живет только в памяти, запись
+ * каждого подписчика сохраняется отдельно и при ошибке не повторяется, а доставки, не успевшие
+ * выполниться за shutdownTimeout при остановке сервера, теряются.
+ */
+@Slf4j
+@Service
+public class SubscriptionServiceImp implements SubscriptionService {
+    private static final int MAX_KEYWORD_LENGTH = 50;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionMatchRepository subscriptionMatchRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final SubscriptionMatcher subscriptionMatcher;
+    private final ExecutorService deliveryExecutor;
+    private final int maxPerUser;
+    private final Duration shutdownTimeout;
+
+    @Autowired
+    public SubscriptionServiceImp(SubscriptionRepository subscriptionRepository,
+                                  SubscriptionMatchRepository subscriptionMatchRepository,
+                                  UserExistenceCache userExistenceCache,
+                                  SubscriptionMatcher subscriptionMatcher,
+                                  @Value("${shareit.subscription.delivery-threads:2}") int deliveryThreads,
+                                  @Value("${shareit.subscription.max-per-user:100}") int maxPerUser,
+                                  @Value("${shareit.subscription.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionMatchRepository = subscriptionMatchRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.subscriptionMatcher = subscriptionMatcher;
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads,
+                new CustomizableThreadFactory("subscription-delivery-"));
+        this.maxPerUser = maxPerUser;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Transactional
+    @Override
+    public SubscriptionDto createSubscription(Long userId, SubscriptionDto subscriptionDto) {
+        log.info("Работает: SubscriptionServiceImp.createSubscription");
+        existUser(userId);
+        String keyword = SubscriptionMatcher.normalize(subscriptionDto.getKeyword());
+        if (keyword.isEmpty() || keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new BadRequestException("Ключевое слово должно быть непустым и не длиннее "
+                    + MAX_KEYWORD_LENGTH + " символов");
+        }
+        return toSubscriptionDto(subscriptionRepository.findByUserIdAndKeyword(userId, keyword)
+                .orElseGet(() -> {
+                    if (subscriptionRepository.countByUserId(userId) >= maxPerUser) {
+                        throw new BadRequestException("Нельзя подписаться больше чем на " + maxPerUser
+                                + " ключевых слов");
+                    }
+                    Subscription subscription = subscriptionRepository.save(Subscription.builder()
+                            .userId(userId)
+                            .keyword(keyword)
+                            .build());
+                    subscriptionMatcher.subscribe(userId, keyword);
+                    return subscription;
+                }));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<SubscriptionDto> getSubscriptions(Long userId) {
+        log.info("Работает: SubscriptionServiceImp.getSubscriptions");
+        existUser(userId);
+        return subscriptionRepository.findAllByUserIdOrderByIdAsc(userId).stream()
+                .map(SubscriptionMapper::toSubscriptionDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    @Override
+    public void deleteSubscription(Long userId, Long subscriptionId) {
+        log.info("Работает: SubscriptionServiceImp.deleteSubscription");
+        Subscription subscription = subscriptionRepository.findById(subscriptionId)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new ObjectNotFoundException("Подписка с id = " + subscriptionId + " не найдена"));
+        subscriptionRepository.delete(subscription);
+        subscriptionMatcher.unsubscribe(userId, subscription.getKeyword());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<SubscriptionMatchDto> getInbox(Long userId, Integer from, Integer size) {
+        log.info("Работает: SubscriptionServiceImp.getInbox");
+        existUser(userId);
+        List<SubscriptionMatchView> matches = subscriptionMatchRepository.findViewsByUserId(userId,
+                PageRequest.of(from / size, size));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<String>> keywords = subscriptionMatchRepository.findKeywordsByIdIn(matches.stream()
+                        .map(SubscriptionMatchView::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(SubscriptionMatchKeyword::getMatchId,
+                        Collectors.mapping(SubscriptionMatchKeyword::getKeyword, Collectors.toList())));
+        return matches.stream()
+                .map(match -> toSubscriptionMatchDto(match, keywords.getOrDefault(match.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void notifyItemRequestCreated(ItemRequestResponseDto itemRequest, Long requesterId) {
+        Runnable submit = () -> deliveryExecutor.execute(() -> deliver(itemRequest, requesterId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    /**
+     * Дает уже поставленным в очередь доставкам завершиться не дольше shutdownTimeout.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        deliveryExecutor.shutdown();
+        if (!deliveryExecutor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Не доставлено подписчикам запросов: {}", deliveryExecutor.shutdownNow().size());
+        }
+    }
+
+    private void deliver(ItemRequestResponseDto itemRequest, Long requesterId) {
+        Map<Long, List<String>> matches;
+        try {
+            matches = subscriptionMatcher.match(itemRequest.getDescription(), requesterId);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сопоставить запрос id = {} с подписками", itemRequest.getId(), e);
+            return;
+        }
+        int delivered = 0;
+        for (Map.Entry<Long, List<String>> match : matches.entrySet()) {
+            try {
+                subscriptionMatchRepository.save(SubscriptionMatch.builder()
+                        .userId(match.getKey())
+                        .requestId(itemRequest.getId())
+                        .keywords(match.getValue())
+                        .build());
+                delivered++;
+            } catch (RuntimeException e) {
+                log.warn("Не удалось доставить запрос id = {} пользователю id = {}", itemRequest.getId(),
+                        match.getKey(), e);
+            }
+        }
+        if (delivered > 0) {
+            log.info("Запрос id = {} доставлен подписчикам: {}", itemRequest.getId(), delivered);
+        }
+    }
+
+    private void existUser(Long userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new ObjectNotFoundException("Пользователь с id = " + userId + "  не найден");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.user.existence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума по id. mightContain == false означает, что id точно не добавлялся;
+ * true может быть ложным с вероятностью около falsePositiveRate при expectedInsertions добавлениях.
+ * Удаления не поддерживаются.
+ */
+final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int insertions = Math.max(expectedInsertions, 1);
+        long size = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max((size + 63) / 64, 1));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max((int) Math.round((double) bits / insertions * Math.log(2)), 1);
+    }
+
+    void put(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long hash, int i) {
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return (combined & Long.MAX_VALUE) % bits;
+    }
+
+    private static long mix(long id) {
+        long z = id + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
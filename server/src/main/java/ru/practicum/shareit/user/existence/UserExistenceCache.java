@@ -0,0 +1,141 @@
+package ru.practicum.shareit.user.existence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверка существования пользователя из X-Sharer-User-Id без запроса к базе. Фильтр Блума
+ * по всем id отвечает "точно нет", ограниченный LRU известных id - "точно да"; в остальных
+ * случаях решает existsById, и найденный id запоминается. Фильтр заполняется при старте и
+ * из UserExistenceListener при каждой вставке, LRU очищается от удаленных после коммита.
+ * До окончания загрузки фильтра отрицательные ответы берутся только из базы.
+ * Вставки на других узлах в фильтр не попадают, поэтому "точно нет" дается только для id
+ * не выше наибольшего известного: id выдаются IDENTITY по возрастанию, и более новый
+ * пользователь проверяется через existsById.
+ */
+@Slf4j
+@Component
+public class UserExistenceCache {
+    private final UserRepository userRepository;
+    private final BloomFilter knownIds;
+    private final int maxSize;
+    private final Map<Long, Boolean> recentIds;
+    private final Counter negatives;
+    private final Counter hits;
+    private final Counter misses;
+    private final AtomicLong maxKnownId = new AtomicLong();
+    private volatile boolean ready;
+    private long removals;
+
+    @Autowired
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${shareit.user.existence.expected-users:100000}") int expectedUsers,
+                              @Value("${shareit.user.existence.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.knownIds = new BloomFilter(expectedUsers, 0.01);
+        this.maxSize = maxSize;
+        this.recentIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > UserExistenceCache.this.maxSize;
+            }
+        };
+        this.negatives = meterRegistry.counter("shareit.user.existence.requests", "result", "negative");
+        this.hits = meterRegistry.counter("shareit.user.existence.requests", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.user.existence.requests", "result", "miss");
+        meterRegistry.gauge("shareit.user.existence.size", this, UserExistenceCache::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        log.info("Работает метод: warmUp, загрузка id пользователей");
+        List<Long> ids = userRepository.findAllIds();
+        ids.forEach(this::remember);
+        ready = true;
+        log.info("Id пользователей загружены: {}", ids.size());
+    }
+
+    public boolean exists(Long userId) {
+        if (ready && userId <= maxKnownId.get() && !knownIds.mightContain(userId)) {
+            negatives.increment();
+            return false;
+        }
+        long loadRemovals;
+        synchronized (this) {
+            if (recentIds.get(userId) != null) {
+                hits.increment();
+                return true;
+            }
+            loadRemovals = removals;
+        }
+        misses.increment();
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            remember(userId);
+            synchronized (this) {
+                if (loadRemovals == removals) {
+                    recentIds.put(userId, Boolean.TRUE);
+                }
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Id сразу попадает в фильтр, чтобы после коммита пользователь не получил ложный отказ;
+     * откат оставит в фильтре лишний id, что допустимо.
+     */
+    void added(Long userId) {
+        remember(userId);
+        afterCommit(() -> recentIds.put(userId, Boolean.TRUE));
+    }
+
+    void removed(Long userId) {
+        afterCommit(() -> {
+            removals++;
+            recentIds.remove(userId);
+        });
+    }
+
+    private void remember(long userId) {
+        knownIds.put(userId);
+        maxKnownId.accumulateAndGet(userId, Math::max);
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                change.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private synchronized int size() {
+        return recentIds.size();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.existence;
+
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * Передает в UserExistenceCache вставку и удаление любого User, через какой бы сервис они ни шли.
+ * Создается Hibernate через контейнер бинов Spring; кэш берется лениво, потому что сам зависит
+ * от UserRepository и EntityManagerFactory.
+ */
+public class UserExistenceListener {
+    private final ObjectProvider<UserExistenceCache> userExistenceCache;
+
+    public UserExistenceListener(ObjectProvider<UserExistenceCache> userExistenceCache) {
+        this.userExistenceCache = userExistenceCache;
+    }
+
+    @PostPersist
+    public void created(User user) {
+        userExistenceCache.ifAvailable(cache -> cache.added(user.getId()));
+    }
+
+    @PostRemove
+    public void removed(User user) {
+        userExistenceCache.ifAvailable(cache -> cache.removed(user.getId()));
+    }
+}
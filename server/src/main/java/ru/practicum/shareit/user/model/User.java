@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.model;
 
 import lombok.*;
+import ru.practicum.shareit.user.existence.UserExistenceListener;
 
 import javax.persistence.*;
 //import javax.validation.constraints.Email;
@@ -19,6 +20,7 @@ import javax.persistence.*;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode
+@EntityListeners(UserExistenceListener.class)
 public class User {
 
     @Id
@@ -5,6 +5,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.ItemRequestFeedCache;
+import ru.practicum.shareit.subscription.matcher.SubscriptionMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
 import ru.practicum.shareit.user.model.User;
@@ -22,6 +28,12 @@ import static ru.practicum.shareit.user.model.UserMapper.toUserDto;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemRequestFeedCache itemRequestFeedCache;
+    private final SubscriptionMatcher subscriptionMatcher;
 
     @Transactional(readOnly = true)
     @Override
@@ -70,7 +82,13 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long userIid) {
         log.info("Поступил запрос на удаления пользователя - {}", userIid);
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userIid);
         userRepository.deleteById(userIid);
+        itemSearchEngine.remove(itemIds);
+        itemSearchCache.invalidate();
+        itemSuggestIndex.remove(itemIds);
+        itemRequestFeedCache.invalidate();
+        subscriptionMatcher.removeUser(userIid);
     }
 
 }
@@ -0,0 +1,16 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_text TEXT
+        GENERATED ALWAYS AS (LOWER(name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_text_trgm
+    ON items USING gin (search_text gin_trgm_ops)
+    WHERE is_available = TRUE;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+        WHERE (status IN ('WAITING', 'APPROVED'));
@@ -1,4 +1,5 @@
-DROP TABLE IF EXISTS users, requests, items, comments, bookings;
+DROP TABLE IF EXISTS users, requests, items, comments, item_comment_stats, bookings, subscriptions,
+    subscription_matches, subscription_match_keywords;
 
 CREATE TABLE IF NOT EXISTS users
 (
@@ -26,6 +27,7 @@ CREATE TABLE IF NOT EXISTS items
     is_available BOOLEAN,
     owner_id     BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
     request_id   BIGINT REFERENCES requests (id) ON DELETE CASCADE,
+    version      BIGINT DEFAULT 0                               NOT NULL,
     CONSTRAINT   pk_item PRIMARY KEY (id)
     );
 
@@ -37,6 +39,8 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                                              NOT NULL,
     booker_id  BIGINT                                              NOT NULL,
     status     VARCHAR(10)                                         NOT NULL,
+    finished   BOOLEAN DEFAULT FALSE                               NOT NULL,
+    version    BIGINT DEFAULT 0                                    NOT NULL,
     CONSTRAINT "booking_item_foreign" FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT "booking_user_foreign" FOREIGN KEY (booker_id) REFERENCES users (id)
     );
@@ -50,4 +54,48 @@ CREATE TABLE IF NOT EXISTS comments
     created   TIMESTAMP WITHOUT TIME ZONE                         NOT NULL,
     CONSTRAINT "comments_item_foreign" FOREIGN KEY (item_id) references items (id),
     CONSTRAINT "comments_author_foreign" FOREIGN KEY (author_id) references users (id)
-    );
\ No newline at end of file
+    );
+
+CREATE TABLE IF NOT EXISTS item_comment_stats
+(
+    item_id         BIGINT PRIMARY KEY REFERENCES items (id) ON DELETE CASCADE NOT NULL,
+    comment_count   BIGINT DEFAULT 0                                          NOT NULL,
+    last_comment_at TIMESTAMP WITHOUT TIME ZONE,
+    version         BIGINT DEFAULT 0                                          NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS subscriptions
+(
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY     NOT NULL,
+    user_id BIGINT REFERENCES users (id) ON DELETE CASCADE          NOT NULL,
+    keyword VARCHAR(50)                                             NOT NULL,
+    CONSTRAINT UQ_SUBSCRIPTION_USER_KEYWORD UNIQUE (user_id, keyword)
+    );
+
+CREATE TABLE IF NOT EXISTS subscription_matches
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    user_id    BIGINT REFERENCES users (id) ON DELETE CASCADE      NOT NULL,
+    request_id BIGINT REFERENCES requests (id) ON DELETE CASCADE   NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE                         NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS subscription_match_keywords
+(
+    match_id BIGINT REFERENCES subscription_matches (id) ON DELETE CASCADE NOT NULL,
+    keyword  VARCHAR(50)                                                   NOT NULL,
+    CONSTRAINT pk_subscription_match_keyword PRIMARY KEY (match_id, keyword)
+    );
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id, id);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_start ON bookings (status, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_finished_end ON bookings (finished, end_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_subscription_matches_user ON subscription_matches (user_id, id DESC);
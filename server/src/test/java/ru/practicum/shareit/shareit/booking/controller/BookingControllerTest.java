@@ -8,16 +8,21 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
@@ -32,9 +37,13 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -55,6 +64,7 @@ class BookingControllerTest {
     private User owner;
     private Item item;
     private BookingDto bookingDto;
+    private BookingView bookingView;
     private BookingShortDto bookingShortDto;
     private Long userIdNotFoud = 101L;
 
@@ -65,6 +75,7 @@ class BookingControllerTest {
         owner = createOwner();
         item = createItem();
         bookingDto = createBookingDto();
+        bookingView = new BookingView(4L, start, end, BookingStatus.WAITING, 3L, "nameFirstItem", 1L);
         bookingShortDto = createBookingShortDto();
     }
 
@@ -128,11 +139,24 @@ class BookingControllerTest {
         assertTrue(responseBody.contains("User with id: " + userIdNotFoud + " not found"));
     }
 
+    @SneakyThrows
+    @Test
+    public void streamAllByUserNotFoundTest() {
+        doThrow(new ObjectNotFoundException("User with id: " + userIdNotFoud + " not found"))
+                .when(bookingService).checkUser(userIdNotFoud);
+
+        this.mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userIdNotFoud)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
+        verify(bookingService, never()).streamAllByUser(anyLong(), any(), any());
+    }
+
     @SneakyThrows
     @Test
     public void getAllByUserTest() {
         when(bookingService.getAllByUser(1L, BookingState.ALL, 0, 20))
-                .thenReturn(List.of(bookingDto));
+                .thenReturn(new SliceImpl<>(List.of(bookingView)));
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -140,19 +164,23 @@ class BookingControllerTest {
                         .param("from", "0")
                         .param("size", "20"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andDo(print())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(4L), Long.class))
                 .andExpect(jsonPath("$[0].status", is("WAITING")))
+                .andExpect(jsonPath("$[0].item.id", is(3L), Long.class))
                 .andExpect(jsonPath("$[0].item.name", is("nameFirstItem")))
-                .andExpect(jsonPath("$[0].booker.name", is("nameFirstUser")));
+                .andExpect(jsonPath("$[0].item.owner").doesNotExist())
+                .andExpect(jsonPath("$[0].booker.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].booker.email").doesNotExist());
     }
 
     @SneakyThrows
     @Test
     void getAllByOwner() {
         when(bookingService.getAllByOwner(1L, BookingState.ALL, 0, 20))
-                .thenReturn(List.of(bookingDto));
+                .thenReturn(new SliceImpl<>(List.of(bookingView)));
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -160,12 +188,16 @@ class BookingControllerTest {
                         .param("from", "0")
                         .param("size", "20"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andDo(print())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(4L), Long.class))
                 .andExpect(jsonPath("$[0].status", is("WAITING")))
+                .andExpect(jsonPath("$[0].item.id", is(3L), Long.class))
                 .andExpect(jsonPath("$[0].item.name", is("nameFirstItem")))
-                .andExpect(jsonPath("$[0].booker.name", is("nameFirstUser")));
+                .andExpect(jsonPath("$[0].item.owner").doesNotExist())
+                .andExpect(jsonPath("$[0].booker.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].booker.email").doesNotExist());
     }
 
     @Test
@@ -187,6 +219,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id").value(bookingDto.getId()))
                 .andExpect(jsonPath("$.status").value(bookingDto.getStatus().toString()))
                 .andExpect(jsonPath("$.item.name").value(bookingDto.getItem().getName()))
+                .andExpect(jsonPath("$.item.version").doesNotExist())
                 .andExpect(jsonPath("$.booker.name").value(bookingDto.getBooker().getName()))
                 .andDo(print())
                 .andReturn()
@@ -242,4 +275,39 @@ class BookingControllerTest {
 
         assertEquals(objectMapper.writeValueAsString(bookingDto), resultResponse);
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void approveAll() {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(4L, true), new BookingDecisionDto(5L, false));
+        when(bookingService.approveBookings(anyLong(), anyList()))
+                .thenReturn(List.of(new BookingDecisionResultDto(4L, BookingStatus.APPROVED, null),
+                        new BookingDecisionResultDto(5L, null, "Бронирование уже в статусе APPROVED")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].error").value("Бронирование уже в статусе APPROVED"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByUserAfterCursor() {
+        when(bookingService.getAllByUserAfter(1L, BookingState.ALL, "cursor", 1))
+                .thenReturn(new SliceImpl<>(List.of(bookingView), Pageable.unpaged(), true));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "cursor")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(4L), Long.class));
+    }
+}
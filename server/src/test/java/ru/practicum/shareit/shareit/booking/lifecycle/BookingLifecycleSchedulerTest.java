@@ -0,0 +1,88 @@
+package ru.practicum.shareit.shareit.booking.lifecycle;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comment.service.CommentEligibilityCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.model.BookingStatus.*;
+
+@SpringBootTest(
+        properties = {"db.name=test",
+                "shareit.booking.lifecycle.enabled=true",
+                "shareit.booking.lifecycle.initial-delay=3600000",
+                "shareit.booking.lifecycle.batch-size=2"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingLifecycleSchedulerTest {
+    private final BookingLifecycleScheduler bookingLifecycleScheduler;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    public void runTest() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@user.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@user.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drill description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking staleWaiting = save(item, booker, now.minusHours(1), now.plusHours(1), WAITING);
+        Booking pastWaiting = save(item, booker, now.minusDays(2), now.minusDays(1), WAITING);
+        Booking pastApproved = save(item, booker, now.minusDays(4), now.minusDays(3), APPROVED);
+        Booking futureWaiting = save(item, booker, now.plusDays(1), now.plusDays(2), WAITING);
+        Booking currentApproved = save(item, booker, now.minusHours(3), now.plusHours(3), APPROVED);
+
+        bookingLifecycleScheduler.run();
+
+        assertEquals(EXPIRED, status(staleWaiting));
+        assertEquals(EXPIRED, status(pastWaiting));
+        assertEquals(APPROVED, status(pastApproved));
+        assertEquals(WAITING, status(futureWaiting));
+        assertEquals(APPROVED, status(currentApproved));
+        assertTrue(bookingRepository.findById(pastWaiting.getId()).orElseThrow().isFinished());
+        assertTrue(bookingRepository.findById(pastApproved.getId()).orElseThrow().isFinished());
+        assertFalse(bookingRepository.findById(currentApproved.getId()).orElseThrow().isFinished());
+        assertTrue(commentEligibilityCache.contains(booker.getId(), item.getId()));
+        assertFalse(commentEligibilityCache.contains(owner.getId(), item.getId()));
+        assertEquals(2, meterRegistry.get("shareit.booking.lifecycle.batch.size")
+                .tag("transition", "expire").summary().totalAmount());
+    }
+
+    private Booking save(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,202 @@
+package ru.practicum.shareit.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingServiceImp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+
+    private final BookingServiceImp bookingService;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemWriteLocks itemWriteLocks;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    private ExecutorService executor;
+    private User owner;
+    private List<User> bookers;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        owner = userRepository.save(User.builder().name("owner").email("owner@user.ru").build());
+        bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker" + i).email("booker" + i + "@user.ru").build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCreateSameIntervalTest() throws Exception {
+        Item item = saveItem("drill");
+        BookingShortDto bookingShortDto = new BookingShortDto(item.getId(), start, start.plusHours(1));
+
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            try {
+                bookingService.createBooking(bookingShortDto, bookers.get(i).getId());
+            } catch (BadRequestException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    public void concurrentApproveTest() throws Exception {
+        Item item = saveItem("drill");
+        Long bookingId = bookingService.createBooking(
+                new BookingShortDto(item.getId(), start, start.plusHours(1)), bookers.get(0).getId()).getId();
+
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            try {
+                bookingService.approveBooking(owner.getId(), bookingId, i % 2 == 0);
+            } catch (BadRequestException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, booking.getVersion());
+    }
+
+    @Test
+    public void optimisticLockConflictRetriedTest() {
+        Item item = saveItem("drill");
+        Long bookingId = bookingService.createBooking(
+                new BookingShortDto(item.getId(), start, start.plusHours(1)), bookers.get(0).getId()).getId();
+        TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+        otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger attempts = new AtomicInteger();
+        itemWriteLocks.inTransaction(item.getId(), () -> {
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                otherNode.executeWithoutResult(status -> jdbcTemplate.update(
+                        "update bookings set version = version + 1 where id = ?", bookingId));
+            }
+            booking.setStatus(BookingStatus.APPROVED);
+            return booking;
+        });
+
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertEquals(2, attempts.get());
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        assertEquals(2, booking.getVersion());
+    }
+
+    @Test
+    public void concurrentCreateManyItemsTest() {
+        int itemsCount = 4;
+        int bookingsPerThread = 25;
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemsCount; i++) {
+            items.add(saveItem("item" + i));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> runConcurrently(THREADS, i -> {
+            Item item = items.get(i % itemsCount);
+            for (int n = 0; n < bookingsPerThread; n++) {
+                LocalDateTime from = start.plusHours((long) (i / itemsCount) * bookingsPerThread + n);
+                bookingService.createBooking(new BookingShortDto(item.getId(), from, from.plusHours(1)),
+                        bookers.get(i).getId());
+            }
+        }));
+
+        assertEquals(THREADS * bookingsPerThread, bookingRepository.count());
+    }
+
+    @Test
+    public void createBookingsAllOrNothingTest() {
+        Item drill = saveItem("drill");
+        Item saw = saveItem("saw");
+        BookingShortDto drillBooking = new BookingShortDto(drill.getId(), start, start.plusHours(1));
+        BookingShortDto sawBooking = new BookingShortDto(saw.getId(), start, start.plusHours(1));
+        BookingShortDto overlapping = new BookingShortDto(saw.getId(), start.plusMinutes(30), start.plusHours(2));
+
+        assertThrows(BadRequestException.class, () -> bookingService.createBookings(
+                List.of(drillBooking, sawBooking, overlapping), bookers.get(0).getId()));
+        assertEquals(0, bookingRepository.count());
+
+        assertEquals(2, bookingService.createBookings(List.of(drillBooking, sawBooking), bookers.get(0).getId()).size());
+        assertEquals(2, bookingRepository.count());
+    }
+
+    private Item saveItem(String name) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description(name + " description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private void runConcurrently(int threads, IntConsumerTask task) throws Exception {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                ready.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private interface IntConsumerTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -8,11 +8,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BadRequestException;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingCursor;
+import ru.practicum.shareit.booking.repository.BookingRole;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImp;
 import ru.practicum.shareit.item.model.Item;
@@ -23,11 +28,14 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.practicum.shareit.booking.model.BookingState.*;
 import static ru.practicum.shareit.booking.model.BookingStatus.REJECTED;
 import static ru.practicum.shareit.booking.model.BookingStatus.WAITING;
@@ -239,12 +247,12 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByOwner(1L, ALL, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(1L, ALL, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(1L, ALL, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByOwner(2L, ALL, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, ALL, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -254,13 +262,13 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByOwner(1L, CURRENT, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(1L, CURRENT, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(1L, CURRENT, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setStart(start.minusDays(2));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByOwner(2L, CURRENT, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, CURRENT, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -270,14 +278,14 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByOwner(1L, PAST, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(1L, PAST, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(1L, PAST, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setEnd(start.minusDays(2));
         bookingShortDto.setStart(start.minusDays(5));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByOwner(2L, PAST, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, PAST, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -287,14 +295,14 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByOwner(1L, FUTURE, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(1L, FUTURE, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(1L, FUTURE, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setStart(start.plusDays(1));
         bookingShortDto.setEnd(start.plusDays(5));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByOwner(2L, FUTURE, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, FUTURE, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -304,12 +312,12 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByOwner(1L, BookingState.WAITING, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(1L, BookingState.WAITING, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(1L, BookingState.WAITING, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByOwner(2L, BookingState.WAITING, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, BookingState.WAITING, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -320,12 +328,12 @@ public class BookingServiceImpTest {
                 .withMessage("Пользователь с id: 2 не найден");
         userRepository.save(firstUser);
         userRepository.save(secondUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByOwner(2L, BookingState.REJECTED, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByOwner(2L, BookingState.REJECTED, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
         bookingService.approveBooking(2L, 1L, false);
-        bookingDtoList = bookingService.getAllByOwner(2L, BookingState.REJECTED, 0, 1);
+        bookingDtoList = bookingService.getAllByOwner(2L, BookingState.REJECTED, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -336,12 +344,12 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, ALL, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, ALL, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, ALL, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByUser(1L, ALL, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, ALL, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -351,13 +359,13 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, CURRENT, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, CURRENT, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, CURRENT, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setStart(start.minusDays(2));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByUser(1L, CURRENT, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, CURRENT, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -367,14 +375,14 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, PAST, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, PAST, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, PAST, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setEnd(start.minusDays(2));
         bookingShortDto.setStart(start.minusDays(5));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByUser(1L, PAST, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, PAST, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -384,14 +392,14 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, FUTURE, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, FUTURE, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, FUTURE, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingShortDto.setStart(start.plusDays(1));
         bookingShortDto.setEnd(start.plusDays(5));
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByUser(1L, FUTURE, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, FUTURE, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -401,12 +409,12 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, BookingState.WAITING, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, BookingState.WAITING, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, BookingState.WAITING, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
-        bookingDtoList = bookingService.getAllByUser(1L, BookingState.WAITING, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, BookingState.WAITING, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
@@ -416,15 +424,176 @@ public class BookingServiceImpTest {
                 .isThrownBy(() -> bookingService.getAllByUser(1L, BookingState.REJECTED, 1, 1))
                 .withMessage("Пользователь с id: 1 не найден");
         userRepository.save(firstUser);
-        List<BookingDto> bookingDtoList = bookingService.getAllByUser(1L, BookingState.REJECTED, 1, 1);
+        List<BookingView> bookingDtoList = bookingService.getAllByUser(1L, BookingState.REJECTED, 1, 1).getContent();
         assertEquals(bookingDtoList.size(), 0);
         userRepository.save(secondUser);
         itemRepository.save(item);
         bookingService.createBooking(bookingShortDto, 1L);
         bookingService.approveBooking(2L, 1L, false);
-        bookingDtoList = bookingService.getAllByUser(1L, BookingState.REJECTED, 0, 1);
+        bookingDtoList = bookingService.getAllByUser(1L, BookingState.REJECTED, 0, 1).getContent();
         assertEquals(bookingDtoList.size(), 1);
     }
 
-}
+    @Test
+    public void streamAllByOwnerAndUserTest() {
+        assertThatExceptionOfType(ObjectNotFoundException.class)
+                .isThrownBy(() -> bookingService.streamAllByOwner(2L, ALL, bookingDto -> { }))
+                .withMessage("Пользователь с id: 2 не найден");
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        bookingService.createBooking(bookingShortDto, 1L);
+        bookingShortDto.setStart(start.minusDays(5));
+        bookingShortDto.setEnd(start.minusDays(2));
+        bookingService.createBooking(bookingShortDto, 1L);
+
+        List<BookingView> owner = new ArrayList<>();
+        bookingService.streamAllByOwner(2L, ALL, owner::add);
+        assertEquals(List.of(1L, 2L), owner.stream().map(BookingView::getId).collect(Collectors.toList()));
+        List<BookingView> past = new ArrayList<>();
+        bookingService.streamAllByUser(1L, PAST, past::add);
+        assertEquals(1, past.size());
+        assertEquals(2L, past.get(0).getId());
+        List<BookingView> ownerAsBooker = new ArrayList<>();
+        bookingService.streamAllByUser(2L, ALL, ownerAsBooker::add);
+        assertEquals(0, ownerAsBooker.size());
+    }
+
+    @Test
+    public void getAllByUserPagedTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        bookingService.createBooking(bookingShortDto, 1L);
+        bookingShortDto.setStart(start.plusDays(1));
+        bookingShortDto.setEnd(end.plusDays(1));
+        bookingService.createBooking(bookingShortDto, 1L);
+
+        assertEquals(2L, bookingService.getAllByUser(1L, ALL, 0, 1).getContent().get(0).getId());
+        assertEquals(1L, bookingService.getAllByUser(1L, ALL, 1, 1).getContent().get(0).getId());
+        assertEquals(0, bookingService.getAllByUser(1L, ALL, 2, 1).getContent().size());
+        assertEquals(2, bookingService.getAllByOwner(2L, FUTURE, 0, 10).getContent().size());
+    }
+
+    @Test
+    public void createBookingOverlapTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        bookingService.createBooking(bookingShortDto, 1L);
+        BookingShortDto overlapping = new BookingShortDto(1L, start.plusMinutes(5), end.plusMinutes(5));
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> bookingService.createBooking(overlapping, 1L));
 
+        BookingShortDto adjacent = new BookingShortDto(1L, end, end.plusMinutes(5));
+        assertEquals(2L, bookingService.createBooking(adjacent, 1L).getId());
+
+        bookingService.approveBooking(2L, 1L, false);
+        BookingShortDto insideRejected = new BookingShortDto(1L, start.plusMinutes(1), start.plusMinutes(3));
+        assertEquals(WAITING, bookingService.createBooking(insideRejected, 1L).getStatus());
+    }
+
+    @Test
+    public void createBookingOverStartedWaitingTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        BookingShortDto started = new BookingShortDto(1L, start.minusMinutes(10), end);
+        bookingService.createBooking(started, 1L);
+
+        BookingDto result = bookingService.createBooking(bookingShortDto, 1L);
+        assertEquals(WAITING, result.getStatus());
+        assertEquals(List.of(1L), bookingRepository.findIdsByIdInAndStatus(List.of(1L), EXPIRED));
+    }
+
+    @Test
+    public void approveStartedBookingTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        bookingService.createBooking(new BookingShortDto(1L, start.minusMinutes(10), end), 1L);
+
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> bookingService.approveBooking(2L, 1L, true));
+        assertNotNull(bookingService.approveBookings(2L, List.of(new BookingDecisionDto(1L, true))).get(0).getError());
+        assertEquals(REJECTED, bookingService.approveBooking(2L, 1L, false).getStatus());
+    }
+
+    @Test
+    public void approveBookingsTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        bookingService.createBooking(bookingShortDto, 1L);
+        bookingService.createBooking(new BookingShortDto(1L, end, end.plusMinutes(5)), 1L);
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(2L, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(1L, false),
+                new BookingDecisionDto(99L, true)));
+
+        assertEquals(List.of(APPROVED, REJECTED), results.stream()
+                .map(BookingDecisionResultDto::getStatus)
+                .limit(2)
+                .collect(Collectors.toList()));
+        assertNotNull(results.get(2).getError());
+        assertNotNull(results.get(3).getError());
+        assertEquals(APPROVED, bookingService.getById(1L, 1L).getStatus());
+        assertEquals(REJECTED, bookingService.getById(2L, 1L).getStatus());
+        assertNotNull(bookingService.approveBookings(1L, List.of(new BookingDecisionDto(2L, true))).get(0).getError());
+    }
+
+    @Test
+    public void createBookingsTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        itemRepository.save(Item.builder()
+                .id(2L)
+                .name("nameSecondItem")
+                .description("descriptionSecondItem")
+                .owner(secondUser)
+                .available(true)
+                .build());
+
+        List<BookingDto> result = bookingService.createBookings(List.of(bookingShortDto,
+                new BookingShortDto(2L, start, end)), 1L);
+
+        assertEquals(List.of(1L, 2L), result.stream().map(booking -> booking.getItem().getId())
+                .collect(Collectors.toList()));
+        assertEquals(List.of(WAITING, WAITING), result.stream().map(BookingDto::getStatus)
+                .collect(Collectors.toList()));
+        assertThatExceptionOfType(ObjectNotFoundException.class)
+                .isThrownBy(() -> bookingService.createBookings(List.of(bookingShortDto.toBuilder()
+                        .itemId(99L).build()), 1L))
+                .withMessage("Вещь с id = 99 не найдена");
+    }
+
+    @Test
+    public void getAllByUserAfterCursorTest() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        itemRepository.save(item);
+        for (int day = 0; day < 3; day++) {
+            bookingService.createBooking(new BookingShortDto(1L, start.plusDays(day), end.plusDays(day)), 1L);
+        }
+
+        Slice<BookingView> firstPage = bookingService.getAllByUserAfter(1L, ALL, null, 2);
+        assertEquals(List.of(3L, 2L), firstPage.stream().map(BookingView::getId).collect(Collectors.toList()));
+        String cursor = BookingCursor.next(firstPage, BookingRole.BOOKER, 1L, ALL).orElseThrow();
+
+        Slice<BookingView> secondPage = bookingService.getAllByUserAfter(1L, ALL, cursor, 2);
+        assertEquals(List.of(1L), secondPage.stream().map(BookingView::getId).collect(Collectors.toList()));
+        assertTrue(BookingCursor.next(secondPage, BookingRole.BOOKER, 1L, ALL).isEmpty());
+        assertTrue(BookingCursor.next(bookingService.getAllByUser(1L, ALL, 1, 2), BookingRole.BOOKER, 1L, ALL)
+                .isEmpty());
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> bookingService.getAllByOwnerAfter(2L, ALL, cursor, 2));
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> bookingService.getAllByUserAfter(1L, PAST, cursor, 2));
+        assertEquals(2L, bookingService.getAllByUser(1L, ALL, 1, 2).getContent().get(0).getId());
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> bookingService.getAllByUserAfter(1L, ALL, "broken", 2));
+    }
+}
@@ -178,6 +178,18 @@ public class CommentServiceTest {
                 .withMessage("Вы не можете оставить комментарий");
     }
 
+    @Test
+    public void createCommentBookingNotFinished() {
+        userRepository.save(toUser(userDto1));
+        userRepository.save(toUser(secondUserDto));
+        itemRepository.save(item);
+        booking.setEnd(LocalDateTime.now().plusDays(1));
+        bookingRepository.save(booking);
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> commentService.createComment(1L, 2L, commentShortDto))
+                .withMessage("Вы не можете оставить комментарий");
+    }
+
     @Test
     public void createCommentValidData() {
         userRepository.save(toUser(userDto1));
@@ -7,6 +7,8 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,9 +16,11 @@ import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentShortDto;
 import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.item.ItemAvailabilityDto;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.search.ItemSearchPage;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.time.LocalDateTime;
@@ -29,9 +33,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -108,9 +114,8 @@ class ItemControllerTest {
                 .name("name")
                 .description("description")
                 .build();
-        when(itemService.getAllItems(1L))
+        when(itemService.getAllItems(eq(1L), isNull(), isNull()))
                 .thenReturn(List.of(itemDto));
-        List<ItemDto> itemDto1 = itemService.getAllItems(1L);
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
@@ -180,7 +185,8 @@ class ItemControllerTest {
                 .name("name")
                 .description("test")
                 .build();
-        when(itemService.searchItems(eq(1L), eq("test"))).thenReturn(List.of(itemDto));
+        when(itemService.searchItems(eq(1L), eq("test"), eq(0), eq(10), isNull()))
+                .thenReturn(new ItemSearchPage(List.of(itemDto), null));
         mockMvc.perform(get("/items/search", 2L)
                         .header("X-Sharer-User-Id", 1L)
                         .param("text", "test")
@@ -196,4 +202,78 @@ class ItemControllerTest {
                 .getContentAsString();
     }
 
+    @SneakyThrows
+    @Test
+    public void searchItemsInvalidPageTest() {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "test")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "test")
+                        .param("from", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    public void suggestItemsTest() {
+        when(itemService.suggestItems(1L, "дре", 5)).thenReturn(List.of("Дрель"));
+        mockMvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("prefix", "дре")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]").value("Дрель"));
+    }
+
+    @SneakyThrows
+    @Test
+    public void getAvailabilityTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemService.getAvailability(1L, 1L, from, to)).thenReturn(new ItemAvailabilityDto(1L, from, to,
+                List.of(new ItemAvailabilityDto.Interval(from, from.plusHours(2))),
+                List.of(new ItemAvailabilityDto.Interval(from.plusHours(2), to))));
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.busy[0].end").value("2030-01-01T12:00:00"))
+                .andExpect(jsonPath("$.free[0].start").value("2030-01-01T12:00:00"));
+    }
+
+    @SneakyThrows
+    @Test
+    public void getCommentsTest() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        List<CommentDto> comments = List.of(
+                new CommentDto(3L, "third", "author", created.plusHours(1)),
+                new CommentDto(2L, "second", "author", created));
+        when(commentService.getComments(1L, 1L, null, 2))
+                .thenReturn(new SliceImpl<>(comments, Pageable.unpaged(), true));
+        MvcResult result = mockMvc.perform(get("/items/{itemId}/comments", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].text").value("third"))
+                .andReturn();
+        String cursor = result.getResponse().getHeader("X-Next-Cursor");
+        assertTrue(cursor != null);
+
+        when(commentService.getComments(1L, 1L, cursor, 2)).thenReturn(new SliceImpl<>(List.of()));
+        mockMvc.perform(get("/items/{itemId}/comments", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
 }
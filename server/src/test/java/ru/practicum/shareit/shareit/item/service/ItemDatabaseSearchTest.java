@@ -0,0 +1,70 @@
+package ru.practicum.shareit.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchPage;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.user.model.UserMapper.toUser;
+
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.search.engine=database"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemDatabaseSearchTest {
+    private final UserRepository userRepository;
+    private final ItemServiceImpl itemService;
+    private final ItemSearchEngine itemSearchEngine;
+
+    @Test
+    public void searchItemsInDatabaseTest() {
+        assertTrue(itemSearchEngine instanceof DatabaseItemSearchEngine);
+        userRepository.save(toUser(UserDto.builder()
+                .name("nameFirstUser")
+                .email("nameFirstUser@user.ru")
+                .build()));
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Отвертка")
+                .description("Аккумуляторная 100%")
+                .available(true)
+                .build());
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Дрель ударная")
+                .description("Сломана")
+                .available(false)
+                .build());
+
+        List<ItemDto> result = itemService.searchItems(1L, "дРелЬ", 0, 10, null).getItems();
+        assertEquals(1, result.size());
+        assertEquals("Дрель", result.get(0).getName());
+        assertEquals(1, itemService.searchItems(1L, "0%", 0, 10, null).getItems().size());
+        assertEquals(0, itemService.searchItems(1L, "_", 0, 10, null).getItems().size());
+
+        ItemSearchPage firstPage = itemService.searchItems(1L, "р", 0, 1, null);
+        assertEquals("Дрель", firstPage.getItems().get(0).getName());
+        ItemSearchPage secondPage = itemService.searchItems(1L, "р", 0, 1, firstPage.getNext().encode("р"));
+        assertEquals("Отвертка", secondPage.getItems().get(0).getName());
+        assertNull(secondPage.getNext());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.shareit.item.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,18 +9,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.booking.index.BookingTimeline;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.comment.repository.CommentCursor;
+import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.item.ItemAvailabilityDto;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.search.ItemSearchPage;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -28,6 +46,8 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.practicum.shareit.item.model.ItemMapper.toItem;
 import static ru.practicum.shareit.item.model.ItemMapper.toItemDto;
 import static ru.practicum.shareit.user.model.UserMapper.toUser;
@@ -43,6 +63,12 @@ public class ItemServiceTest {
     private final UserRepository userRepository;
     private final ItemRequestService itemRequestService;
     private final ItemServiceImpl itemService;
+    private final BookingService bookingService;
+    private final CommentService commentService;
+    private final MeterRegistry meterRegistry;
+    private final UserServiceImpl userService;
+    private final BookingRepository bookingRepository;
+    private final BookingTimeline bookingTimeline;
     private ItemDto firstItemDto;
     private ItemDto secondItemDto;
     private ItemDto threeItemDto;
@@ -161,6 +187,7 @@ public class ItemServiceTest {
         itemService.createItem(1L, firstItemDto);
         ItemDto itemDto = itemService.getItemById(1L, 1L);
         firstItemDto.setComments(new ArrayList<>());
+        firstItemDto.setCommentCount(0L);
         assertEquals(firstItemDto, itemDto);
     }
 
@@ -209,12 +236,17 @@ public class ItemServiceTest {
     @DisplayName("Запрос выполнен с корректными данными")
     public void getAllItemsTest() {
         userRepository.save(toUser(firstUserDto));
-        assertEquals(itemService.getAllItems(1L).size(), 0);
+        assertEquals(itemService.getAllItems(1L, 0, 10).size(), 0);
         itemService.createItem(1L, firstItemDto);
         userRepository.save(toUser(secondUserDto));
         itemService.createItem(1L, secondItemDto);
-        List<ItemDto> itemDtoList = itemService.getAllItems(1L);
-        assertEquals(itemService.getAllItems(1L).size(), 2);
+        List<ItemDto> itemDtoList = itemService.getAllItems(1L, 0, 10);
+        assertEquals(itemService.getAllItems(1L, 0, 10).size(), 2);
+        assertEquals(itemService.getAllItems(1L, null, null).size(), 2);
+        assertEquals(itemService.getAllItems(1L, null, 1).size(), 1);
+        assertEquals(List.of(2L), itemService.getAllItems(1L, 1, 2).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
 
         assertEquals(new HashSet<>(itemDtoList.stream()
                 .map(ItemMapper::toItem)
@@ -224,12 +256,286 @@ public class ItemServiceTest {
     @Test
     @DisplayName("Проверка работы метода searchItems")
     public void searchItemsTest() {
-        assertEquals(itemService.searchItems(1L, "").size(), 0);
+        assertEquals(itemService.searchItems(1L, "", 0, 10, null).getItems().size(), 0);
 
         userRepository.save(toUser(firstUserDto));
         itemService.createItem(1L, firstItemDto);
         itemService.createItem(1L, secondItemDto);
-        assertEquals(itemService.searchItems(1L, "Escription2").size(), 1);
-        assertEquals(itemService.searchItems(2L, "desc").size(), 2);
+        assertEquals(itemService.searchItems(1L, "Escription2", 0, 10, null).getItems().size(), 1);
+        assertEquals(itemService.searchItems(2L, "desc", 0, 10, null).getItems().size(), 2);
+    }
+
+    @Test
+    @DisplayName("Поиск учитывает название и обновление вещи")
+    public void searchItemsByNameAndAfterUpdateTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, firstItemDto);
+        itemService.createItem(1L, secondItemDto);
+        assertEquals(itemService.searchItems(1L, "SECONDitem", 0, 10, null).getItems().size(), 1);
+        assertEquals(itemService.searchItems(1L, "item", 0, 10, null).getItems().size(), 2);
+
+        itemService.updateItem(1L, ItemDto.builder().available(false).build(), 1L);
+        assertEquals(itemService.searchItems(1L, "item", 0, 10, null).getItems().size(), 1);
+        itemService.updateItem(1L, ItemDto.builder().name("drill").available(true).build(), 1L);
+        assertEquals(itemService.searchItems(1L, "firstItem", 0, 10, null).getItems().size(), 0);
+        assertEquals(itemService.searchItems(1L, "dri", 0, 10, null).getItems().size(), 1);
+        assertEquals(itemService.searchItems(1L, "ll", 0, 10, null).getItems().size(), 1);
+    }
+
+    @Test
+    @DisplayName("Повторный поиск отдается из кэша до изменения вещи")
+    public void searchItemsCachedTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, firstItemDto);
+        assertEquals(1, itemService.searchItems(1L, "Desc", 0, 10, null).getItems().size());
+        assertEquals(1, itemService.searchItems(1L, " desc ", 0, 10, null).getItems().size());
+        assertEquals(1.0, meterRegistry.counter("shareit.search.cache.requests", "result", "hit").count());
+
+        itemService.updateItem(1L, ItemDto.builder().available(false).build(), 1L);
+        assertEquals(0, itemService.searchItems(1L, "desc", 0, 10, null).getItems().size());
+        assertEquals(2.0, meterRegistry.counter("shareit.search.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Вещи удаленного владельца пропадают из поиска")
+    public void searchItemsAfterDeleteUserTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, firstItemDto);
+        assertEquals(1, itemService.searchItems(1L, "description1", 0, 10, null).getItems().size());
+
+        userService.deleteUser(1L);
+        assertEquals(0, itemService.searchItems(2L, "firstItem", 0, 10, null).getItems().size());
+        assertEquals(0, itemService.searchItems(2L, "description1", 0, 10, null).getItems().size());
+    }
+
+    @Test
+    @DisplayName("Ранжирование: совпадение в названии выше, опечатка допускается")
+    public void searchItemsRankedTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Молоток")
+                .description("Лучше, чем дрель")
+                .available(true)
+                .build());
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая")
+                .available(true)
+                .build());
+
+        List<ItemDto> result = itemService.searchItems(1L, "дрель", 0, 10, null).getItems();
+        assertEquals(List.of(2L, 1L), result.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertTrue(result.get(0).getScore() > result.get(1).getScore());
+        assertEquals(List.of(2L, 1L), itemService.searchItems(1L, "дрелт", 0, 10, null).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(1L), itemService.searchItems(1L, "дрель лучше", 0, 10, null).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+
+        ItemSearchPage firstPage = itemService.searchItems(1L, "дрель", 0, 1, null);
+        assertEquals(List.of(2L), firstPage.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        String cursor = firstPage.getNext().encode("дрель");
+        itemService.createItem(1L, ItemDto.builder()
+                .name("Пила")
+                .description("Ножовка по дереву с закаленным зубом")
+                .available(true)
+                .build());
+        List<ItemDto> secondPage = itemService.searchItems(1L, "дрель", 0, 1, cursor).getItems();
+        assertEquals(List.of(1L), secondPage.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(result.get(1).getScore(), secondPage.get(0).getScore());
+        assertNull(itemService.searchItems(1L, "дрель", 0, 1, cursor).getNext());
+    }
+
+    @Test
+    @DisplayName("Подсказки по началу слов в названиях доступных вещей")
+    public void suggestItemsTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, ItemDto.builder().name("Дрель ударная").description("d").available(true).build());
+        itemService.createItem(1L, ItemDto.builder().name("Дрель").description("d").available(true).build());
+        itemService.createItem(1L, ItemDto.builder().name("Ударный молоток").description("d").available(false).build());
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), itemService.suggestItems(1L, "дР", 10));
+        assertEquals(List.of("Дрель"), itemService.suggestItems(1L, "дР", 1));
+        assertEquals(List.of("Дрель ударная"), itemService.suggestItems(1L, "удар", 10));
+        assertEquals(0, itemService.suggestItems(1L, " ", 10).size());
+
+        itemService.updateItem(1L, ItemDto.builder().available(true).build(), 3L);
+        itemService.updateItem(1L, ItemDto.builder().name("Шуруповерт").build(), 2L);
+        assertEquals(List.of("Дрель ударная", "Ударный молоток"), itemService.suggestItems(1L, "удар", 10));
+        assertEquals(List.of("Дрель ударная"), itemService.suggestItems(1L, "дрель", 10));
+
+        userService.deleteUser(1L);
+        assertEquals(0, itemService.suggestItems(1L, "дрель", 10).size());
+    }
+
+    @Test
+    @DisplayName("Постраничный поиск по смещению и по курсору")
+    public void searchItemsPagedTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, firstItemDto);
+        itemService.createItem(1L, secondItemDto);
+        itemService.createItem(1L, ItemDto.builder()
+                .name("thirdItem")
+                .description("description3")
+                .available(true)
+                .build());
+
+        ItemSearchPage firstPage = itemService.searchItems(1L, "desc", 0, 2, null);
+        assertEquals(List.of(1L, 2L), firstPage.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(3L), itemService.searchItems(1L, "desc", 2, 2, null).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(2L, 3L), itemService.searchItems(1L, "desc", 1, 2, null).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+
+        String cursor = firstPage.getNext().encode("desc");
+        assertEquals(List.of(3L), itemService.searchItems(1L, "desc", 0, 2, cursor).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> itemService.searchItems(1L, "desc", 0, 2, "not-a-cursor"));
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> itemService.searchItems(1L, "item", 0, 2, cursor));
+    }
+
+    @Test
+    @DisplayName("Последнее и следующее бронирование вещей владельца")
+    public void getAllItemsWithBookingsTest() {
+        userRepository.save(toUser(firstUserDto));
+        userRepository.save(toUser(secondUserDto));
+        itemService.createItem(1L, firstItemDto);
+        itemService.createItem(1L, secondItemDto);
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.createBooking(new BookingShortDto(1L, now.minusDays(3), now.minusDays(2)), 2L);
+        BookingDto older = bookingService.createBooking(new BookingShortDto(1L, now.minusDays(5), now.minusDays(4)), 2L);
+        BookingDto future = bookingService.createBooking(new BookingShortDto(1L, now.plusDays(2), now.plusDays(3)), 2L);
+        BookingDto waiting = bookingService.createBooking(new BookingShortDto(1L, now.plusDays(1), now.plusDays(2)), 2L);
+        approvePast(past.getId());
+        approvePast(older.getId());
+        bookingService.approveBooking(1L, future.getId(), true);
+
+        List<ItemDto> items = itemService.getAllItems(1L, 0, 10);
+        assertEquals(2, items.size());
+        assertEquals(past.getId(), items.get(0).getLastBooking().getId());
+        assertEquals(future.getId(), items.get(0).getNextBooking().getId());
+        assertEquals(2L, items.get(0).getNextBooking().getBookerId());
+        assertNull(items.get(1).getLastBooking());
+        assertNull(items.get(1).getNextBooking());
+        assertNull(itemService.getItemById(2L, 1L).getLastBooking());
+        assertEquals(1, itemService.getAllItems(1L, 1, 1).size());
+        assertEquals(waiting.getStatus(), BookingStatus.WAITING);
+    }
+
+    @Test
+    @DisplayName("Комментарии подгружаются для списка вещей владельца")
+    public void getAllItemsWithCommentsTest() {
+        userRepository.save(toUser(firstUserDto));
+        userRepository.save(toUser(secondUserDto));
+        itemService.createItem(1L, firstItemDto);
+        itemService.createItem(1L, secondItemDto);
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.createBooking(new BookingShortDto(1L, now.minusDays(3), now.minusDays(2)), 2L);
+        approvePast(past.getId());
+        commentService.createComment(1L, 2L, new CommentShortDto("first"));
+        commentService.createComment(1L, 2L, new CommentShortDto("second"));
+
+        List<ItemDto> items = itemService.getAllItems(1L, 0, 10);
+        assertEquals(2, items.get(0).getComments().size());
+        assertEquals("first", items.get(0).getComments().get(0).getText());
+        assertEquals(secondUserDto.getName(), items.get(0).getComments().get(0).getAuthorName());
+        assertEquals(0, items.get(1).getComments().size());
+        assertEquals(2, items.get(0).getCommentCount());
+        assertEquals(items.get(0).getComments().get(1).getCreated(), items.get(0).getLastCommentAt());
+        assertEquals(0, items.get(1).getCommentCount());
+        assertNull(items.get(1).getLastCommentAt());
+        assertEquals(2, itemService.getItemById(2L, 1L).getComments().size());
+    }
+
+    @Test
+    @DisplayName("В вещь встраиваются только последние комментарии, история доступна постранично")
+    public void getItemByIdLatestCommentsTest() {
+        userRepository.save(toUser(firstUserDto));
+        userRepository.save(toUser(secondUserDto));
+        itemService.createItem(1L, firstItemDto);
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.createBooking(new BookingShortDto(1L, now.minusDays(3), now.minusDays(2)), 2L);
+        approvePast(past.getId());
+        for (int i = 1; i <= 12; i++) {
+            commentService.createComment(1L, 2L, new CommentShortDto("comment" + i));
+        }
+
+        ItemDto itemDto = itemService.getItemById(2L, 1L);
+        assertEquals(10, itemDto.getComments().size());
+        assertEquals("comment3", itemDto.getComments().get(0).getText());
+        assertEquals("comment12", itemDto.getComments().get(9).getText());
+        assertEquals(12, itemDto.getCommentCount());
+
+        Slice<CommentDto> firstPage = commentService.getComments(2L, 1L, null, 5);
+        assertEquals("comment12", firstPage.getContent().get(0).getText());
+        List<String> texts = new ArrayList<>();
+        firstPage.forEach(comment -> texts.add(comment.getText()));
+        String cursor = CommentCursor.next(firstPage, 1L).orElseThrow();
+        while (cursor != null) {
+            Slice<CommentDto> page = commentService.getComments(2L, 1L, cursor, 5);
+            page.forEach(comment -> texts.add(comment.getText()));
+            cursor = CommentCursor.next(page, 1L).orElse(null);
+        }
+        assertEquals(12, texts.size());
+        assertEquals("comment1", texts.get(11));
+    }
+
+    @Test
+    @DisplayName("Потоковая выдача вещей владельца и результатов поиска")
+    public void streamItemsTest() {
+        userRepository.save(toUser(firstUserDto));
+        itemService.createItem(1L, firstItemDto);
+        itemService.createItem(1L, secondItemDto);
+
+        List<ItemDto> items = new ArrayList<>();
+        itemService.streamAllItems(1L, items::add);
+        assertEquals(List.of(1L, 2L), items.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(0, items.get(0).getComments().size());
+
+        List<ItemDto> found = new ArrayList<>();
+        itemService.streamSearchItems(1L, "description2", found::add);
+        assertEquals(1, found.size());
+        assertEquals(2L, found.get(0).getId());
+        assertThatExceptionOfType(ObjectNotFoundException.class)
+                .isThrownBy(() -> itemService.streamAllItems(5L, item -> { }));
+    }
+
+    @Test
+    @DisplayName("Календарь занятости вещи по интервалам бронирований")
+    public void getAvailabilityTest() {
+        userRepository.save(toUser(firstUserDto));
+        userRepository.save(toUser(secondUserDto));
+        itemService.createItem(1L, firstItemDto);
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        bookingService.createBooking(new BookingShortDto(1L, from.minusHours(2), from.plusHours(1)), 2L);
+        bookingService.createBooking(new BookingShortDto(1L, from.plusHours(3), from.plusHours(4)), 2L);
+        BookingDto rejected = bookingService.createBooking(new BookingShortDto(1L, from.plusHours(5), from.plusHours(6)), 2L);
+        bookingService.approveBooking(1L, rejected.getId(), false);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(2L, 1L, from, from.plusDays(1));
+
+        assertEquals(List.of(new ItemAvailabilityDto.Interval(from, from.plusHours(1)),
+                new ItemAvailabilityDto.Interval(from.plusHours(3), from.plusHours(4))), availability.getBusy());
+        assertEquals(List.of(new ItemAvailabilityDto.Interval(from.plusHours(1), from.plusHours(3)),
+                new ItemAvailabilityDto.Interval(from.plusHours(4), from.plusDays(1))), availability.getFree());
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> itemService.getAvailability(2L, 1L, from, from));
+        assertThatExceptionOfType(ObjectNotFoundException.class)
+                .isThrownBy(() -> itemService.getAvailability(2L, 99L, from, from.plusDays(1)));
+    }
+
+    /**
+     * Прошедшее бронирование владелец подтвердить уже не может, поэтому история задается напрямую.
+     */
+    private void approvePast(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingTimeline.update(bookingRepository.save(booking));
     }
 }
@@ -7,6 +7,8 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,6 +30,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -116,7 +119,7 @@ public class RequestControllerTest {
                 .build();
 
         when(itemRequestService.getAllItemRequest(any(), any(), any()))
-                .thenReturn(List.of(itemRequestResponseDto));
+                .thenReturn(new SliceImpl<>(List.of(itemRequestResponseDto)));
 
         mockMvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L)
@@ -154,4 +157,27 @@ public class RequestControllerTest {
                 .andExpect(jsonPath("$[0].created", is((itemRequestResponseDto.getCreated().format(dateTimeFormatter)))))
                 .andExpect(jsonPath("$[0].items", is((itemRequestResponseDto.getItems()))));
     }
+
+    @Test
+    @SneakyThrows
+    public void getAllItemRequestAfterTest() {
+        ItemRequestResponseDto itemRequestResponseDto = ItemRequestResponseDto.builder()
+                .id(1L)
+                .description("Description")
+                .created(createdLocalDateTime)
+                .items(new ArrayList<>())
+                .build();
+
+        when(itemRequestService.getAllItemRequestAfter(1L, "cursor", 1))
+                .thenReturn(new SliceImpl<>(List.of(itemRequestResponseDto), Pageable.unpaged(), true));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemRequestResponseDto.getId()), Long.class));
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.shareit.request.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,22 +10,29 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.exception.BadRequestException;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.practicum.shareit.user.model.UserMapper.toUser;
 
 @SpringBootTest(
@@ -39,6 +47,7 @@ public class ItemRequestServiceTest {
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestService itemRequestService;
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
     private ItemRequestDto itemRequestDto;
     private UserDto userDto;
     private ItemRequestResponseDto itemRequestResponseDto1;
@@ -128,12 +137,83 @@ public class ItemRequestServiceTest {
                 .available(true)
                 .requestId(2L)
                 .build());
-        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 1).size(), 1);
-        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 2).size(), 2);
-        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 3).size(), 3);
-        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 1).size(), 0);
-        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 2).size(), 1);
-        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 3).size(), 0);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 1).getContent().size(), 1);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 2).getContent().size(), 2);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 0, 3).getContent().size(), 3);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 1).getContent().size(), 0);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 2).getContent().size(), 1);
+        assertEquals(itemRequestService.getAllItemRequest(2L, 3, 3).getContent().size(), 0);
+    }
+
+    @Test
+    @DisplayName("Лента запросов: порядок от новых к старым, курсор и ответные вещи")
+    public void getAllItemRequestAfterTest() {
+        userRepository.save(toUser(userDto));
+        userRepository.save(toUser(new UserDto().toBuilder()
+                .name("name2")
+                .email("name@name.ru").build()));
+        for (int i = 1; i <= 3; i++) {
+            itemRequestService.createItemRequest(1L, new ItemRequestDto().toBuilder()
+                    .description("description" + i)
+                    .build());
+        }
+        itemService.createItem(1L, ItemDto.builder()
+                .name("item1")
+                .description("description1")
+                .available(true)
+                .requestId(2L)
+                .build());
+
+        Slice<ItemRequestResponseDto> firstPage = itemRequestService.getAllItemRequestAfter(2L, null, 2);
+        assertEquals(List.of(3L, 2L), firstPage.stream().map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(1, firstPage.getContent().get(1).getItems().size());
+        assertEquals(0, firstPage.getContent().get(0).getItems().size());
+        assertEquals(List.of(3L, 2L), itemRequestService.getAllItemRequest(2L, 0, 2).stream()
+                .map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList()));
+
+        String cursor = ItemRequestCursor.next(firstPage, 2L).orElseThrow();
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> itemRequestService.getAllItemRequestAfter(1L, cursor, 2));
+        Slice<ItemRequestResponseDto> secondPage = itemRequestService.getAllItemRequestAfter(2L, cursor, 2);
+        assertEquals(List.of(1L), secondPage.stream().map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList()));
+        assertTrue(ItemRequestCursor.next(secondPage, 2L).isEmpty());
+        assertEquals(1, itemRequestService.getByIdItemRequest(2L, 2L).getItems().size());
+    }
+
+    @Test
+    @DisplayName("Первые страницы ленты отдаются из кэша без собственных запросов пользователя")
+    public void getAllItemRequestFromFeedCacheTest() {
+        userRepository.save(toUser(userDto));
+        userRepository.save(toUser(new UserDto().toBuilder()
+                .name("name2")
+                .email("name@name.ru").build()));
+        itemRequestService.createItemRequest(1L, itemRequestDto);
+        itemRequestService.createItemRequest(2L, new ItemRequestDto().toBuilder()
+                .description("description2")
+                .build());
+        ItemDto answer = itemService.createItem(2L, ItemDto.builder()
+                .name("item1")
+                .description("description1")
+                .available(true)
+                .requestId(1L)
+                .build());
+        double hits = meterRegistry.get("shareit.request.feed.cache.requests").tag("result", "hit").counter().count();
+
+        List<ItemRequestResponseDto> feed = itemRequestService.getAllItemRequest(2L, 0, 10).getContent();
+        assertEquals(List.of(1L), feed.stream().map(ItemRequestResponseDto::getId).collect(Collectors.toList()));
+        assertEquals(answer.getId(), feed.get(0).getItems().iterator().next().getId());
+        assertEquals(List.of(2L), itemRequestService.getAllItemRequest(1L, 0, 10).stream()
+                .map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList()));
+
+        itemService.updateItem(2L, ItemDto.builder().name("renamed").build(), answer.getId());
+        assertEquals("renamed", itemRequestService.getAllItemRequestAfter(2L, null, 10).getContent().get(0)
+                .getItems().iterator().next().getName());
+        assertEquals(hits + 3, meterRegistry.get("shareit.request.feed.cache.requests")
+                .tag("result", "hit").counter().count());
     }
 
     @Test
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.shareit.subscription.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.subscription.controller.SubscriptionController;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+import ru.practicum.shareit.subscription.service.SubscriptionService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SubscriptionController.class)
+public class SubscriptionControllerTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private SubscriptionService subscriptionService;
+
+    @Test
+    @SneakyThrows
+    public void createSubscriptionTest() {
+        SubscriptionDto subscriptionDto = SubscriptionDto.builder().id(1L).keyword("дрель").build();
+        when(subscriptionService.createSubscription(any(), any())).thenReturn(subscriptionDto);
+
+        mockMvc.perform(post("/subscriptions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(SubscriptionDto.builder().keyword("Дрель").build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.keyword").value("дрель"));
+    }
+
+    @Test
+    @SneakyThrows
+    public void deleteSubscriptionTest() {
+        mockMvc.perform(delete("/subscriptions/{subscriptionId}", 2L)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(subscriptionService).deleteSubscription(1L, 2L);
+    }
+
+    @Test
+    @SneakyThrows
+    public void getInboxTest() {
+        SubscriptionMatchDto match = SubscriptionMatchDto.builder()
+                .id(5L)
+                .requestId(3L)
+                .description("Нужна дрель")
+                .keywords(List.of("дрель"))
+                .created(LocalDateTime.now())
+                .build();
+        when(subscriptionService.getInbox(eq(1L), eq(0), eq(10))).thenReturn(List.of(match));
+
+        mockMvc.perform(get("/subscriptions/inbox")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].requestId").value(3L))
+                .andExpect(jsonPath("$[0].keywords[0]").value("дрель"));
+    }
+}
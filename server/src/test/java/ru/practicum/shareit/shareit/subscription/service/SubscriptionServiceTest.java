@@ -0,0 +1,149 @@
+package ru.practicum.shareit.shareit.subscription.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionDto;
+import ru.practicum.shareit.subscription.dto.SubscriptionMatchDto;
+import ru.practicum.shareit.subscription.service.SubscriptionService;
+import ru.practicum.shareit.user.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SubscriptionServiceTest {
+    private final SubscriptionService subscriptionService;
+    private final ItemRequestService itemRequestService;
+    private final UserRepository userRepository;
+    private User owner;
+    private User requester;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@user.ru").build());
+        requester = userRepository.save(User.builder().name("requester").email("requester@user.ru").build());
+    }
+
+    @Test
+    public void createSubscriptionNormalizesKeyword() {
+        SubscriptionDto subscription = subscriptionService.createSubscription(owner.getId(),
+                SubscriptionDto.builder().keyword("  Дрель   УДАРНАЯ ").build());
+        SubscriptionDto duplicate = subscriptionService.createSubscription(owner.getId(),
+                SubscriptionDto.builder().keyword("дрель ударная").build());
+
+        assertEquals("дрель ударная", subscription.getKeyword());
+        assertEquals(subscription.getId(), duplicate.getId());
+        assertEquals(1, subscriptionService.getSubscriptions(owner.getId()).size());
+    }
+
+    @Test
+    public void createSubscriptionTooLong() {
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> subscriptionService.createSubscription(owner.getId(),
+                        SubscriptionDto.builder().keyword("д".repeat(51)).build()));
+    }
+
+    @Test
+    public void createSubscriptionOverLimit() {
+        for (int i = 0; i < 100; i++) {
+            subscriptionService.createSubscription(owner.getId(), SubscriptionDto.builder().keyword("слово" + i).build());
+        }
+
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> subscriptionService.createSubscription(owner.getId(),
+                        SubscriptionDto.builder().keyword("лишнее").build()));
+    }
+
+    @Test
+    public void manyKeywordsDeliveredInOneMatch() throws InterruptedException {
+        String word = "дрель".repeat(10);
+        List<String> keywords = new ArrayList<>();
+        for (int length = 41; length <= word.length(); length++) {
+            keywords.add(word.substring(0, length));
+            subscriptionService.createSubscription(owner.getId(),
+                    SubscriptionDto.builder().keyword(word.substring(0, length)).build());
+        }
+
+        itemRequestService.createItemRequest(requester.getId(),
+                ItemRequestDto.builder().description("Нужна " + word).build());
+        List<SubscriptionMatchDto> inbox = awaitInbox(owner.getId());
+
+        assertEquals(1, inbox.size());
+        assertEquals(keywords, inbox.get(0).getKeywords());
+    }
+
+    @Test
+    public void deleteSubscriptionOfOtherUser() {
+        SubscriptionDto subscription = subscriptionService.createSubscription(owner.getId(),
+                SubscriptionDto.builder().keyword("дрель").build());
+
+        assertThatExceptionOfType(ObjectNotFoundException.class)
+                .isThrownBy(() -> subscriptionService.deleteSubscription(requester.getId(), subscription.getId()));
+    }
+
+    @Test
+    public void newItemRequestDeliveredToInbox() throws InterruptedException {
+        subscriptionService.createSubscription(owner.getId(), SubscriptionDto.builder().keyword("дрел").build());
+        subscriptionService.createSubscription(owner.getId(), SubscriptionDto.builder().keyword("рель").build());
+        subscriptionService.createSubscription(owner.getId(), SubscriptionDto.builder().keyword("перфоратор").build());
+        subscriptionService.createSubscription(requester.getId(), SubscriptionDto.builder().keyword("дрель").build());
+
+        ItemRequestResponseDto itemRequest = itemRequestService.createItemRequest(requester.getId(),
+                ItemRequestDto.builder().description("Нужна Дрель или перфоратор на выходные").build());
+        List<SubscriptionMatchDto> inbox = awaitInbox(owner.getId());
+
+        assertEquals(1, inbox.size());
+        assertEquals(itemRequest.getId(), inbox.get(0).getRequestId());
+        assertEquals("Нужна Дрель или перфоратор на выходные", inbox.get(0).getDescription());
+        assertEquals(List.of("дрел", "перфоратор"), inbox.get(0).getKeywords());
+        assertTrue(subscriptionService.getInbox(requester.getId(), 0, 10).isEmpty());
+    }
+
+    @Test
+    public void deletedSubscriptionNotMatched() throws InterruptedException {
+        SubscriptionDto drill = subscriptionService.createSubscription(owner.getId(),
+                SubscriptionDto.builder().keyword("дрель").build());
+        subscriptionService.createSubscription(owner.getId(), SubscriptionDto.builder().keyword("лестница").build());
+        subscriptionService.deleteSubscription(owner.getId(), drill.getId());
+
+        itemRequestService.createItemRequest(requester.getId(),
+                ItemRequestDto.builder().description("Нужна дрель").build());
+        itemRequestService.createItemRequest(requester.getId(),
+                ItemRequestDto.builder().description("Нужна лестница").build());
+        List<SubscriptionMatchDto> inbox = awaitInbox(owner.getId());
+
+        assertEquals(1, inbox.size());
+        assertEquals(List.of("лестница"), inbox.get(0).getKeywords());
+    }
+
+    private List<SubscriptionMatchDto> awaitInbox(Long userId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<SubscriptionMatchDto> inbox = subscriptionService.getInbox(userId, 0, 10);
+            if (!inbox.isEmpty()) {
+                return inbox;
+            }
+            Thread.sleep(100);
+        }
+        return List.of();
+    }
+}
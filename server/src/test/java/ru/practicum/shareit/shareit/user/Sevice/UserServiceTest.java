@@ -1,5 +1,6 @@
 package ru.practicum.shareit.shareit.user.Sevice;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,8 +9,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.existence.UserExistenceCache;
 import ru.practicum.shareit.user.exception.ObjectNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserMapper;
@@ -22,6 +25,8 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.practicum.shareit.user.model.UserMapper.toUser;
 
 @SpringBootTest(
@@ -33,6 +38,9 @@ import static ru.practicum.shareit.user.model.UserMapper.toUser;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class UserServiceTest {
     private final UserServiceImpl userService;
+    private final UserExistenceCache userExistenceCache;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
     private UserDto firstUserDto;
     private UserDto secondUserDto;
     private User firstUser;
@@ -140,4 +148,31 @@ public class UserServiceTest {
                 .hasMessage("Пользователь с id: 1 не найден");
     }
 
+    @Test
+    @DisplayName("Кэш существования пользователя следит за созданием и удалением")
+    public void userExistenceCacheTest() {
+        userService.createUser(firstUserDto);
+        assertFalse(userExistenceCache.exists(0L));
+        assertEquals(1.0, meterRegistry.counter("shareit.user.existence.requests", "result", "negative").count());
+
+        assertTrue(userExistenceCache.exists(1L));
+        assertTrue(userExistenceCache.exists(1L));
+        assertEquals(0.0, meterRegistry.counter("shareit.user.existence.requests", "result", "miss").count());
+
+        userService.deleteUser(1L);
+        assertFalse(userExistenceCache.exists(1L));
+    }
+
+    @Test
+    @DisplayName("Пользователь, добавленный в обход кэша, находится по id выше известных")
+    public void userExistenceCacheExternalInsertTest() {
+        userService.createUser(firstUserDto);
+        jdbcTemplate.update("insert into users (name, email) values (?, ?)",
+                secondUserDto.getName(), secondUserDto.getEmail());
+
+        assertTrue(userExistenceCache.exists(2L));
+        assertTrue(userExistenceCache.exists(2L));
+        assertEquals(1.0, meterRegistry.counter("shareit.user.existence.requests", "result", "miss").count());
+        assertFalse(userExistenceCache.exists(3L));
+    }
 }